@@ -0,0 +1,19 @@
+package reactor.spring.context;
+
+/**
+ * Implemented by events for which only the latest value matters, such as state updates, so that a publisher may
+ * replace a pending, not yet dispatched, event with a more recent one sharing the same coalescing key.
+ *
+ * @author Stephane Maldini
+ * @see RingBufferApplicationEventPublisher
+ */
+public interface CoalescingEvent {
+
+	/**
+	 * Get the key identifying the state this event updates. Events with equal keys replace each other while pending.
+	 *
+	 * @return the coalescing key, or {@code null} if this event must not be coalesced
+	 */
+	Object getCoalescingKey();
+
+}
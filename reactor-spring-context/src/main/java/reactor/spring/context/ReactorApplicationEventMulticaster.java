@@ -0,0 +1,296 @@
+package reactor.spring.context;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.TopicProcessor;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.event.GenericApplicationListener;
+import org.springframework.context.event.GenericApplicationListenerAdapter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * Implementation of {@link org.springframework.context.event.ApplicationEventMulticaster} that dispatches listeners
+ * in parallel on a set of {@link reactor.core.publisher.TopicProcessor} lanes.
+ * <p>Each listener is pinned to a single lane, so a given listener always sees events in the order they were
+ * multicast, while listeners on different lanes run concurrently. The listeners interested in a given event and
+ * source type are resolved once and kept in a copy-on-write index, which is only rebuilt when listeners are added or
+ * removed. Generic events, such as {@link org.springframework.context.PayloadApplicationEvent}, are indexed by their
+ * full {@link ResolvableType}.</p>
+ * <p>To replace the default multicaster, register an instance under the {@code applicationEventMulticaster} bean
+ * name.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorApplicationEventMulticaster implements ApplicationEventMulticaster,
+                                                           BeanFactoryAware,
+                                                           DisposableBean {
+
+	private static final ApplicationListener<?>[][] NO_LISTENERS = new ApplicationListener<?>[0][];
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final Object                         monitor         = new Object();
+	private final Set<ApplicationListener<?>>    listeners       = new LinkedHashSet<>();
+	private final Set<String>                    listenerBeans   = new LinkedHashSet<>();
+	private final TopicProcessor<ListenerTask>[] lanes;
+
+	private volatile Map<Object, Map<Class<?>, ApplicationListener<?>[][]>> listenerIndex = Collections.emptyMap();
+
+	private BeanFactory  beanFactory;
+	private ErrorHandler errorHandler;
+
+	/**
+	 * Create a multicaster with one lane per available processor and a backlog of 1024 events per lane.
+	 */
+	public ReactorApplicationEventMulticaster() {
+		this(Runtime.getRuntime().availableProcessors(), 1024);
+	}
+
+	/**
+	 * Create a multicaster that dispatches listeners on the given number of lanes.
+	 *
+	 * @param lanes   the number of lanes, and so of threads, listeners are spread across
+	 * @param backlog the size of each lane's {@code RingBuffer}
+	 */
+	@SuppressWarnings("unchecked")
+	public ReactorApplicationEventMulticaster(int lanes, int backlog) {
+		Assert.isTrue(lanes > 0, "At least one lane is required");
+		this.lanes = new TopicProcessor[lanes];
+		for (int i = 0; i < lanes; i++) {
+			this.lanes[i] = TopicProcessor.share("reactorAppEventMulticaster-" + i, backlog);
+			this.lanes[i].subscribe(new LaneSubscriber());
+		}
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+	}
+
+	/**
+	 * Set the {@link ErrorHandler} to invoke in case an exception is thrown from a listener. By default exceptions are
+	 * logged.
+	 *
+	 * @param errorHandler the {@link ErrorHandler} to use
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * Get the number of lanes listeners are dispatched on.
+	 *
+	 * @return the number of lanes
+	 */
+	public int getLanes() {
+		return lanes.length;
+	}
+
+	@Override
+	public void addApplicationListener(ApplicationListener<?> listener) {
+		synchronized (monitor) {
+			listeners.add(listener);
+			listenerIndex = Collections.emptyMap();
+		}
+	}
+
+	@Override
+	public void addApplicationListenerBean(String listenerBeanName) {
+		synchronized (monitor) {
+			listenerBeans.add(listenerBeanName);
+			listenerIndex = Collections.emptyMap();
+		}
+	}
+
+	@Override
+	public void removeApplicationListener(ApplicationListener<?> listener) {
+		synchronized (monitor) {
+			listeners.remove(listener);
+			listenerIndex = Collections.emptyMap();
+		}
+	}
+
+	@Override
+	public void removeApplicationListenerBean(String listenerBeanName) {
+		synchronized (monitor) {
+			listenerBeans.remove(listenerBeanName);
+			listenerIndex = Collections.emptyMap();
+		}
+	}
+
+	@Override
+	public void removeAllListeners() {
+		synchronized (monitor) {
+			listeners.clear();
+			listenerBeans.clear();
+			listenerIndex = Collections.emptyMap();
+		}
+	}
+
+	@Override
+	public void multicastEvent(ApplicationEvent event) {
+		multicastEvent(event, null);
+	}
+
+	@Override
+	public void multicastEvent(ApplicationEvent event, ResolvableType eventType) {
+		Object eventTypeKey = (null != eventType ? eventType :
+				event instanceof ResolvableTypeProvider ? ((ResolvableTypeProvider) event).getResolvableType() :
+				event.getClass());
+		ApplicationListener<?>[][] laneListeners = retrieveListeners(eventTypeKey, event.getSource().getClass());
+		for (int i = 0; i < laneListeners.length; i++) {
+			if (laneListeners[i].length > 0) {
+				lanes[i].onNext(new ListenerTask(event, laneListeners[i]));
+			}
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		for (TopicProcessor<ListenerTask> lane : lanes) {
+			lane.onComplete();
+		}
+	}
+
+	private ApplicationListener<?>[][] retrieveListeners(Object eventTypeKey, Class<?> sourceType) {
+		Map<Class<?>, ApplicationListener<?>[][]> bySource = listenerIndex.get(eventTypeKey);
+		ApplicationListener<?>[][] laneListeners = (null != bySource ? bySource.get(sourceType) : null);
+		if (null != laneListeners) {
+			return laneListeners;
+		}
+
+		synchronized (monitor) {
+			Map<Object, Map<Class<?>, ApplicationListener<?>[][]>> index = listenerIndex;
+			bySource = index.get(eventTypeKey);
+			laneListeners = (null != bySource ? bySource.get(sourceType) : null);
+			if (null != laneListeners) {
+				return laneListeners;
+			}
+
+			ResolvableType eventType = (eventTypeKey instanceof ResolvableType ? (ResolvableType) eventTypeKey :
+					ResolvableType.forClass((Class<?>) eventTypeKey));
+			laneListeners = resolveListeners(eventType, sourceType);
+
+			Map<Class<?>, ApplicationListener<?>[][]> newBySource =
+					(null != bySource ? new HashMap<>(bySource) : new HashMap<>());
+			newBySource.put(sourceType, laneListeners);
+			Map<Object, Map<Class<?>, ApplicationListener<?>[][]>> newIndex = new HashMap<>(index);
+			newIndex.put(eventTypeKey, newBySource);
+			listenerIndex = newIndex;
+
+			return laneListeners;
+		}
+	}
+
+	private ApplicationListener<?>[][] resolveListeners(ResolvableType eventType, Class<?> sourceType) {
+		Set<ApplicationListener<?>> candidates = new LinkedHashSet<>(listeners);
+		if (!listenerBeans.isEmpty()) {
+			Assert.notNull(beanFactory, "BeanFactory is required to resolve listener beans");
+			for (String listenerBeanName : listenerBeans) {
+				candidates.add(beanFactory.getBean(listenerBeanName, ApplicationListener.class));
+			}
+		}
+
+		List<ApplicationListener<?>> matching = new ArrayList<>();
+		for (ApplicationListener<?> listener : candidates) {
+			GenericApplicationListener genericListener = (listener instanceof GenericApplicationListener ?
+					(GenericApplicationListener) listener : new GenericApplicationListenerAdapter(listener));
+			if (genericListener.supportsEventType(eventType) && genericListener.supportsSourceType(sourceType)) {
+				matching.add(listener);
+			}
+		}
+		if (matching.isEmpty()) {
+			return NO_LISTENERS;
+		}
+		AnnotationAwareOrderComparator.sort(matching);
+
+		List<List<ApplicationListener<?>>> byLane = new ArrayList<>(lanes.length);
+		for (int i = 0; i < lanes.length; i++) {
+			byLane.add(new ArrayList<>());
+		}
+		for (ApplicationListener<?> listener : matching) {
+			byLane.get(laneOf(listener)).add(listener);
+		}
+
+		ApplicationListener<?>[][] laneListeners = new ApplicationListener<?>[lanes.length][];
+		for (int i = 0; i < lanes.length; i++) {
+			laneListeners[i] = byLane.get(i).toArray(new ApplicationListener<?>[0]);
+		}
+		return laneListeners;
+	}
+
+	private int laneOf(ApplicationListener<?> listener) {
+		return (System.identityHashCode(listener) & Integer.MAX_VALUE) % lanes.length;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void invokeListener(ApplicationListener listener, ApplicationEvent event) {
+		try {
+			listener.onApplicationEvent(event);
+		} catch (Throwable t) {
+			Exceptions.throwIfFatal(t);
+			if (null != errorHandler) {
+				errorHandler.handleError(t);
+			} else {
+				log.error(t.getMessage(), t);
+			}
+		}
+	}
+
+	private static final class ListenerTask {
+		final ApplicationEvent         event;
+		final ApplicationListener<?>[] listeners;
+
+		ListenerTask(ApplicationEvent event, ApplicationListener<?>[] listeners) {
+			this.event = event;
+			this.listeners = listeners;
+		}
+	}
+
+	private final class LaneSubscriber implements Subscriber<ListenerTask> {
+		@Override
+		public void onSubscribe(Subscription s) {
+			s.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(ListenerTask task) {
+			for (ApplicationListener<?> listener : task.listeners) {
+				invokeListener(listener, task.event);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			log.error("", t);
+		}
+
+		@Override
+		public void onComplete() {
+			log.trace("AppEvent Multicaster lane has shutdown");
+		}
+	}
+
+}
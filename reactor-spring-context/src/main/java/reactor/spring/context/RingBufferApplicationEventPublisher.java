@@ -1,5 +1,13 @@
 package reactor.spring.context;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import org.slf4j.Logger;
@@ -11,31 +19,70 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.context.SmartLifecycle;
+import org.springframework.util.Assert;
 
 /**
  * Implementation of {@link org.springframework.context.ApplicationEventPublisher} that uses a {@link
  * reactor.util.concurrent.RingBuffer} to dispatch events.
+ * <p>Events are spread over a configurable number of consumers, each one draining its own {@link TopicProcessor}.
+ * An event is routed to a consumer using a partition key, by default the event class (or the payload class for a
+ * {@link PayloadApplicationEvent}), so events sharing a key are dispatched in order while events with different keys
+ * are dispatched in parallel.</p>
+ * <p>Events implementing {@link CoalescingEvent} are coalesced: while an event is pending dispatch, a newer event
+ * with the same coalescing key replaces it instead of taking another slot in the {@code RingBuffer}. The number of
+ * events replaced this way is tracked per key.</p>
  *
  * @author Jon Brisbin
+ * @author Stephane Maldini
  */
 public class RingBufferApplicationEventPublisher implements ApplicationEventPublisher,
                                                             ApplicationContextAware,
                                                             SmartLifecycle {
 
+	private static final Function<Object, Object> DEFAULT_PARTITION_KEY_EXTRACTOR = event ->
+			(event instanceof PayloadApplicationEvent ?
+					((PayloadApplicationEvent<?>) event).getPayload().getClass() :
+					event.getClass());
+
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
-	private final boolean                           autoStartup;
-	private final TopicProcessor<ApplicationEvent> processor;
+	private final ConcurrentMap<Object, Object>    pendingEvents   = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Object, LongAdder> conflatedCounts = new ConcurrentHashMap<>();
+
+	private final boolean                  autoStartup;
+	private final TopicProcessor<Object>[] processors;
 
 	private volatile boolean running = false;
 
 	private ApplicationContext       appCtx;
+	private Function<Object, Object> partitionKeyExtractor = DEFAULT_PARTITION_KEY_EXTRACTOR;
 
 	public RingBufferApplicationEventPublisher(int backlog, boolean autoStartup) {
+		this(backlog, 1, autoStartup);
+	}
+
+	/**
+	 * Create a publisher dispatching events on the given number of consumers.
+	 *
+	 * @param backlog     the size of each consumer's {@code RingBuffer}
+	 * @param consumers   the number of consumers, and so of threads, events are partitioned across
+	 * @param autoStartup whether to start the consumers immediately
+	 */
+	@SuppressWarnings("unchecked")
+	public RingBufferApplicationEventPublisher(int backlog, int consumers, boolean autoStartup) {
+		Assert.isTrue(consumers > 0, "At least one consumer is required");
 		this.autoStartup = autoStartup;
 
-		this.processor = TopicProcessor.share("ringBufferAppEventPublisher", backlog);
+		this.processors = new TopicProcessor[consumers];
+		if (consumers == 1) {
+			this.processors[0] = TopicProcessor.share("ringBufferAppEventPublisher", backlog);
+		} else {
+			for (int i = 0; i < consumers; i++) {
+				this.processors[i] = TopicProcessor.share("ringBufferAppEventPublisher-" + i, backlog);
+			}
+		}
 
 		if(autoStartup) {
 			start();
@@ -47,6 +94,51 @@ public class RingBufferApplicationEventPublisher implements ApplicationEventPubl
 		this.appCtx = appCtx;
 	}
 
+	/**
+	 * Set the {@link Function} extracting the partition key of an event, which can be an {@link ApplicationEvent} or
+	 * any other object. Events with equal keys are dispatched in order by the same consumer.
+	 *
+	 * @param partitionKeyExtractor the {@link Function} to use
+	 */
+	public void setPartitionKeyExtractor(Function<Object, Object> partitionKeyExtractor) {
+		Assert.notNull(partitionKeyExtractor, "Partition key extractor cannot be null");
+		this.partitionKeyExtractor = partitionKeyExtractor;
+	}
+
+	/**
+	 * Get the number of consumers events are dispatched on.
+	 *
+	 * @return the number of consumers
+	 */
+	public int getConsumers() {
+		return processors.length;
+	}
+
+	/**
+	 * Get the number of {@link CoalescingEvent}s with the given key that were replaced by a newer one before being
+	 * dispatched.
+	 *
+	 * @param coalescingKey the coalescing key
+	 * @return the number of conflated events
+	 */
+	public long getConflatedCount(Object coalescingKey) {
+		LongAdder count = conflatedCounts.get(coalescingKey);
+		return (null != count ? count.sum() : 0);
+	}
+
+	/**
+	 * Get a snapshot of the number of conflated {@link CoalescingEvent}s, by coalescing key.
+	 *
+	 * @return the conflated event counts
+	 */
+	public Map<Object, Long> getConflatedCounts() {
+		Map<Object, Long> counts = new HashMap<>();
+		for (Map.Entry<Object, LongAdder> entry : conflatedCounts.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().sum());
+		}
+		return Collections.unmodifiableMap(counts);
+	}
+
 	@Override
 	public boolean isAutoStartup() {
 		return autoStartup;
@@ -54,7 +146,9 @@ public class RingBufferApplicationEventPublisher implements ApplicationEventPubl
 
 	@Override
 	public void stop(Runnable callback) {
-		processor.onComplete();
+		for (TopicProcessor<Object> processor : processors) {
+			processor.onComplete();
+		}
 		if(null != callback) {
 			callback.run();
 		}
@@ -66,27 +160,32 @@ public class RingBufferApplicationEventPublisher implements ApplicationEventPubl
 	@Override
 	public void start() {
 		synchronized(this) {
-			processor.subscribe(new Subscriber<ApplicationEvent>() {
-				@Override
-				public void onSubscribe(Subscription s) {
-					s.request(Long.MAX_VALUE);
-				}
-
-				@Override
-				public void onNext(ApplicationEvent applicationEvent) {
-					appCtx.publishEvent(applicationEvent);
-				}
-
-				@Override
-				public void onError(Throwable t) {
-					log.error("", t);
-				}
-
-				@Override
-				public void onComplete() {
-					log.trace("AppEvent Publisher has shutdown");
-				}
-			});
+			for (TopicProcessor<Object> processor : processors) {
+				processor.subscribe(new Subscriber<Object>() {
+					@Override
+					public void onSubscribe(Subscription s) {
+						s.request(Long.MAX_VALUE);
+					}
+
+					@Override
+					public void onNext(Object event) {
+						if (event instanceof PendingEvent) {
+							event = pendingEvents.remove(((PendingEvent) event).coalescingKey);
+						}
+						appCtx.publishEvent(event);
+					}
+
+					@Override
+					public void onError(Throwable t) {
+						log.error("", t);
+					}
+
+					@Override
+					public void onComplete() {
+						log.trace("AppEvent Publisher has shutdown");
+					}
+				});
+			}
 			running = true;
 		}
 	}
@@ -110,7 +209,36 @@ public class RingBufferApplicationEventPublisher implements ApplicationEventPubl
 
 	@Override
 	public void publishEvent(ApplicationEvent event) {
-		processor.onNext(event);
+		publishEvent((Object) event);
+	}
+
+	@Override
+	public void publishEvent(Object event) {
+		Object coalescingKey = (event instanceof CoalescingEvent ?
+				((CoalescingEvent) event).getCoalescingKey() : null);
+		if (null == coalescingKey) {
+			processors[partitionOf(event)].onNext(event);
+		} else if (null == pendingEvents.put(coalescingKey, event)) {
+			processors[partitionOf(event)].onNext(new PendingEvent(coalescingKey));
+		} else {
+			conflatedCounts.computeIfAbsent(coalescingKey, k -> new LongAdder()).increment();
+		}
+	}
+
+	private int partitionOf(Object event) {
+		if (processors.length == 1) {
+			return 0;
+		}
+		Object key = partitionKeyExtractor.apply(event);
+		return (null != key ? (key.hashCode() & Integer.MAX_VALUE) % processors.length : 0);
+	}
+
+	private static final class PendingEvent {
+		final Object coalescingKey;
+
+		PendingEvent(Object coalescingKey) {
+			this.coalescingKey = coalescingKey;
+		}
 	}
 
 }
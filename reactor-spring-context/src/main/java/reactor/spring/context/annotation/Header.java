@@ -0,0 +1,35 @@
+package reactor.spring.context.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a parameter of a {@link Selector} method to a header of the {@link reactor.bus.Event}, converted to the type
+ * of the parameter if needed.
+ *
+ * @author Stephane Maldini
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Header {
+
+	/**
+	 * The name of the header.
+	 *
+	 * @return The header name.
+	 */
+	String value();
+
+	/**
+	 * Whether the header must be present. A missing required header fails the invocation, while a missing optional
+	 * one is passed as {@code null}.
+	 *
+	 * @return {@code true} if the header is required.
+	 */
+	boolean required() default true;
+
+}
@@ -0,0 +1,30 @@
+package reactor.spring.context.annotation;
+
+/**
+ * Enum for indicating what happens to an event received by an offloaded {@link Selector} method whose queue is full.
+ *
+ * @author Stephane Maldini
+ */
+public enum OverflowStrategy {
+
+	/**
+	 * Block the dispatching thread until the queue has room, holding back the other consumers of the bus.
+	 */
+	BLOCK,
+
+	/**
+	 * Drop the event received.
+	 */
+	DROP,
+
+	/**
+	 * Drop the oldest event of the queue to make room for the event received.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Pass a {@link java.util.concurrent.RejectedExecutionException} to the error consumer of the event received.
+	 */
+	ERROR
+
+}
@@ -0,0 +1,20 @@
+package reactor.spring.context.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a parameter of a {@link Selector} method to the data of the {@link reactor.bus.Event}, converted to the type
+ * of the parameter if needed. A parameter without annotation whose type is not an {@link reactor.bus.Event} is bound
+ * to the data too, so this annotation only documents the binding.
+ *
+ * @author Stephane Maldini
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Payload {
+}
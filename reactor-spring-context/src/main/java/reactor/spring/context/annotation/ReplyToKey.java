@@ -0,0 +1,19 @@
+package reactor.spring.context.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a parameter of a {@link Selector} method to the {@link reactor.bus.Event#getReplyTo() reply-to key} of the
+ * {@link reactor.bus.Event}, for methods replying by themselves.
+ *
+ * @author Stephane Maldini
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReplyToKey {
+}
@@ -57,4 +57,53 @@ public @interface Selector {
 	 */
 	SelectorType type() default SelectorType.OBJECT;
 
+	/**
+	 * The name of a {@link java.util.concurrent.Executor} bean, or an expression that evaluates to the {@link
+	 * java.util.concurrent.Executor}, to offload this handler to. If empty and {@link #concurrency()} is positive, the
+	 * handler gets as many threads of its own. If both are unset, the handler runs on the thread dispatching the
+	 * event.
+	 *
+	 * @return The executor bean name or expression.
+	 */
+	String executor() default "";
+
+	/**
+	 * The maximum number of events an offloaded handler handles at once. {@code 1} handles events one at a time, in
+	 * the order they were received. Defaults to {@code 1} when an {@link #executor()} is set.
+	 *
+	 * @return The maximum concurrency, or {@code 0} to run on the dispatching thread unless an executor is set.
+	 */
+	int concurrency() default 0;
+
+	/**
+	 * The capacity of the queue of events waiting for an offloaded handler.
+	 *
+	 * @return The queue capacity.
+	 */
+	int queueSize() default 256;
+
+	/**
+	 * What happens to an event received while the queue of an offloaded handler is full.
+	 *
+	 * @return The overflow strategy.
+	 */
+	OverflowStrategy overflow() default OverflowStrategy.BLOCK;
+
+	/**
+	 * The number of events to accumulate before invoking this handler once with all of them. A batched handler takes
+	 * a single {@link java.util.List} or {@link reactor.core.publisher.Flux} parameter of the payloads, or of the
+	 * {@link reactor.bus.Event}s, in the order they were received.
+	 *
+	 * @return The batch size, or {@code 0} to invoke the handler once per event.
+	 */
+	int batchSize() default 0;
+
+	/**
+	 * The number of milliseconds after which a partial batch is passed to this handler, counted from the first event of
+	 * the batch. Only applies when {@link #batchSize()} is set.
+	 *
+	 * @return The batch timeout, or {@code 0} to only pass full batches.
+	 */
+	long batchTimeout() default 0;
+
 }
@@ -0,0 +1,171 @@
+package reactor.spring.context.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.bus.Event;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link Consumer} accumulating events into batches, so that a handler is invoked once per batch rather than once per
+ * event. A batch is passed on as a single {@link Event} carrying the list of accumulated events, in the order they
+ * were received, once {@code batchSize} events have been received or, if a timeout is set, once the first event of the
+ * batch has waited that long. Batches are passed on one at a time, so they are received in order too, but outside of
+ * the lock accumulating events: a thread completing a batch while another one is passing batches on leaves it to that
+ * thread rather than waiting. Timed-out batches are passed on from the given executor, so that a slow delegate never
+ * holds up the timer shared with other consumers.
+ * <p>The batch event carries the reply-to key of the last event of the batch, and passes its errors to the error
+ * consumers of all of the events of the batch.</p>
+ *
+ * @author Stephane Maldini
+ */
+final class BatchingConsumer implements Consumer<Event> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(BatchingConsumer.class);
+
+	private final Queue<List<Event>>       completed = new ConcurrentLinkedQueue<List<Event>>();
+	private final AtomicInteger            passing   = new AtomicInteger();
+	private final Runnable                 passTask  = this::pass;
+	private final Consumer<Event>          delegate;
+	private final int                      batchSize;
+	private final long                     batchTimeout;
+	private final ScheduledExecutorService timer;
+	private final Executor                 timeoutExecutor;
+
+	private List<Event>        batch;
+	private ScheduledFuture<?> timeoutTask;
+
+	/**
+	 * @param delegate        the consumer to pass batches to
+	 * @param batchSize       the number of events of a full batch
+	 * @param batchTimeout    the number of milliseconds after which a partial batch is passed on, or {@code 0}
+	 * @param timer           the executor to schedule timeouts on, may be {@code null} if there is no timeout
+	 * @param timeoutExecutor the executor to pass timed-out batches on from, may be {@code null} to pass them on from
+	 *                        the timer when the delegate never blocks
+	 */
+	BatchingConsumer(Consumer<Event> delegate, int batchSize, long batchTimeout, ScheduledExecutorService timer,
+	                 Executor timeoutExecutor) {
+		Assert.notNull(delegate, "Delegate cannot be null");
+		Assert.isTrue(batchSize > 0, "Batch size must be positive");
+		Assert.isTrue(batchTimeout >= 0, "Batch timeout cannot be negative");
+		Assert.isTrue(batchTimeout == 0 || null != timer, "Timer cannot be null when a batch timeout is set");
+		this.delegate = delegate;
+		this.batchSize = batchSize;
+		this.batchTimeout = batchTimeout;
+		this.timer = timer;
+		this.timeoutExecutor = timeoutExecutor;
+	}
+
+	@Override
+	public void accept(Event ev) {
+		synchronized (this) {
+			if (null == batch) {
+				batch = new ArrayList<Event>(batchSize);
+				if (batchTimeout > 0) {
+					final List<Event> timedBatch = batch;
+					timeoutTask = timer.schedule(() -> timeout(timedBatch), batchTimeout, TimeUnit.MILLISECONDS);
+				}
+			}
+			batch.add(ev);
+			if (batch.size() < batchSize) {
+				return;
+			}
+			complete();
+		}
+		pass();
+	}
+
+	/**
+	 * Pass the partial batch on, if any.
+	 */
+	void flush() {
+		synchronized (this) {
+			if (null == batch) {
+				return;
+			}
+			complete();
+		}
+		pass();
+	}
+
+	private void timeout(List<Event> timedBatch) {
+		synchronized (this) {
+			// the batch may have filled up, and a new one started, while the timeout was firing
+			if (batch != timedBatch) {
+				return;
+			}
+			complete();
+		}
+		if (null != timeoutExecutor) {
+			timeoutExecutor.execute(passTask);
+		} else {
+			pass();
+		}
+	}
+
+	/**
+	 * Queue the current batch to be passed on, which must be done while holding the lock so that batches are queued in
+	 * order.
+	 */
+	private void complete() {
+		completed.offer(batch);
+		batch = null;
+		if (null != timeoutTask) {
+			timeoutTask.cancel(false);
+			timeoutTask = null;
+		}
+	}
+
+	/**
+	 * Pass the completed batches on, unless another thread already is, in which case it passes on those queued
+	 * meanwhile too.
+	 */
+	private void pass() {
+		if (passing.getAndIncrement() != 0) {
+			return;
+		}
+		int missed = 1;
+		do {
+			List<Event> events;
+			while (null != (events = completed.poll())) {
+				pass(events);
+			}
+			missed = passing.addAndGet(-missed);
+		} while (missed != 0);
+	}
+
+	private void pass(List<Event> events) {
+		Event<List<Event>> batchEvent = new Event<List<Event>>(null, events, error -> consumeError(events, error));
+		batchEvent.setReplyTo(events.get(events.size() - 1).getReplyTo());
+		try {
+			delegate.accept(batchEvent);
+		} catch (Throwable t) {
+			consumeError(events, t);
+		}
+	}
+
+	private static void consumeError(List<Event> events, Throwable error) {
+		boolean consumed = false;
+		for (Event ev : events) {
+			if (ev.getErrorConsumer() != null) {
+				ev.consumeError(error);
+				consumed = true;
+			}
+		}
+		if (!consumed) {
+			LOG.error("", error);
+		}
+	}
+
+}
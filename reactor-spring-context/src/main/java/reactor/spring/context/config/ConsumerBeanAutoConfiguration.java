@@ -11,19 +11,32 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
+import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.bus.Bus;
 import reactor.bus.Event;
 import reactor.bus.selector.Selectors;
+import reactor.core.publisher.Flux;
+import reactor.spring.context.annotation.Header;
+import reactor.spring.context.annotation.Key;
+import reactor.spring.context.annotation.Payload;
 import reactor.spring.context.annotation.ReplyTo;
+import reactor.spring.context.annotation.ReplyToKey;
 import reactor.spring.context.annotation.Selector;
 
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationListener;
@@ -32,6 +45,8 @@ import org.springframework.context.expression.BeanFactoryAccessor;
 import org.springframework.context.expression.BeanFactoryResolver;
 import org.springframework.context.expression.EnvironmentAccessor;
 import org.springframework.core.BridgeMethodResolver;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.TypeDescriptor;
@@ -45,9 +60,11 @@ import org.springframework.expression.common.TemplateAwareExpressionParser;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.util.concurrent.ListenableFuture;
 
 import static reactor.bus.selector.JsonPathSelector.jsonPathSelector;
 import static reactor.bus.selector.Selectors.*;
@@ -62,7 +79,8 @@ import static reactor.bus.selector.Selectors.*;
  * @author Stephane Maldini
  */
 public class ConsumerBeanAutoConfiguration implements ApplicationListener<ContextRefreshedEvent>,
-                                                      ApplicationContextAware {
+                                                      ApplicationContextAware,
+                                                      DisposableBean {
 
 	public static final String REACTOR_CONVERSION_SERVICE_BEAN_NAME = "reactorConversionService";
 
@@ -77,6 +95,9 @@ public class ConsumerBeanAutoConfiguration implements ApplicationListener<Contex
 
 	private reactor.bus.selector.Selector defaultSelector = Selectors.anonymous();
 	private Map<String, Boolean>            wiredBeans      = new HashMap<String, Boolean>();
+	private List<ExecutorService>           ownExecutors    = new ArrayList<ExecutorService>();
+	private List<BatchingConsumer>          batchConsumers  = new ArrayList<BatchingConsumer>();
+	private ScheduledExecutorService        batchTimer;
 
 	private ApplicationContext            appCtx;
 	private BeanResolver                  beanResolver;
@@ -99,6 +120,23 @@ public class ConsumerBeanAutoConfiguration implements ApplicationListener<Contex
 		this.appCtx = appCtx;
 	}
 
+	/**
+	 * Pass the partial batches of batched {@link Selector} methods on, and shut down the threads created for {@link
+	 * Selector} methods offloaded without an executor of their own.
+	 */
+	@Override
+	public void destroy() {
+		for (BatchingConsumer consumer : batchConsumers) {
+			consumer.flush();
+		}
+		batchConsumers.clear();
+		for (ExecutorService executor : ownExecutors) {
+			executor.shutdown();
+		}
+		ownExecutors.clear();
+		batchTimer = null;
+	}
+
 	@Override
 	public void onApplicationEvent(ContextRefreshedEvent ev) {
 		ApplicationContext ctx = ev.getApplicationContext();
@@ -169,10 +207,12 @@ public class ConsumerBeanAutoConfiguration implements ApplicationListener<Contex
 
 			//register [replyTo]consumer
 			Object replyTo = replyToAnno != null ? parseReplyTo(replyToAnno, bean) : null;
-			Invoker handler = new Invoker(method, bean, conversionService);
+			Invoker handler = new Invoker(method, bean, conversionService, selectorAnno.batchSize() > 0);
 			consumer = null != replyToAnno ?
 					new ReplyToServiceConsumer(reactor, replyTo, handler) :
 					new ServiceConsumer(handler);
+			consumer = offload(consumer, selectorAnno, bean, method);
+			consumer = batch(consumer, selectorAnno, bean, method);
 
 			if (LOG.isDebugEnabled()) {
 				LOG.debug("Attaching Consumer to Reactor[" + reactor + "] using Selector[" + selector + "]");
@@ -203,6 +243,74 @@ public class ConsumerBeanAutoConfiguration implements ApplicationListener<Contex
 		return expression(selectorAnno.eventBus(), bean);
 	}
 
+	private Consumer<Event> offload(Consumer<Event> consumer, Selector selectorAnno, Object bean, Method method) {
+		String executorRef = selectorAnno.executor();
+		int concurrency = selectorAnno.concurrency();
+		if (!StringUtils.hasText(executorRef) && concurrency == 0) {
+			return consumer;
+		}
+		Executor executor;
+		if (StringUtils.hasText(executorRef)) {
+			executor = fetchExecutor(executorRef, bean);
+		} else {
+			CustomizableThreadFactory threadFactory =
+					new CustomizableThreadFactory(bean.getClass().getSimpleName() + "." + method.getName() + "-");
+			threadFactory.setDaemon(true);
+			ExecutorService ownExecutor = Executors.newFixedThreadPool(concurrency, threadFactory);
+			ownExecutors.add(ownExecutor);
+			executor = ownExecutor;
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Offloading method[" + method + "] to " + executor);
+		}
+		return new OffloadingConsumer(consumer, executor, Math.max(concurrency, 1), selectorAnno.queueSize(),
+				selectorAnno.overflow());
+	}
+
+	private Consumer<Event> batch(Consumer<Event> consumer, Selector selectorAnno, Object bean, Method method) {
+		int batchSize = selectorAnno.batchSize();
+		long batchTimeout = selectorAnno.batchTimeout();
+		if (batchSize <= 0) {
+			if (batchTimeout > 0) {
+				throw new IllegalArgumentException("Method " + method + " sets a batch timeout without a batch size");
+			}
+			return consumer;
+		}
+		if (batchTimeout > 0 && null == batchTimer) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("selectorBatchTimer-");
+			threadFactory.setDaemon(true);
+			batchTimer = Executors.newSingleThreadScheduledExecutor(threadFactory);
+			ownExecutors.add(batchTimer);
+		}
+		// an offloaded method only queues its batches, which can be done from the timer every method shares
+		ExecutorService timeoutExecutor = null;
+		if (batchTimeout > 0 && !(consumer instanceof OffloadingConsumer)) {
+			CustomizableThreadFactory threadFactory =
+					new CustomizableThreadFactory(bean.getClass().getSimpleName() + "." + method.getName() + "-batch-");
+			threadFactory.setDaemon(true);
+			timeoutExecutor = Executors.newSingleThreadExecutor(threadFactory);
+			ownExecutors.add(timeoutExecutor);
+		}
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Batching events of method[" + method + "] by " + batchSize);
+		}
+		BatchingConsumer batchingConsumer = new BatchingConsumer(consumer, batchSize, batchTimeout, batchTimer,
+				timeoutExecutor);
+		batchConsumers.add(batchingConsumer);
+		return batchingConsumer;
+	}
+
+	private Executor fetchExecutor(String executorRef, Object bean) {
+		Object executor = (null != appCtx && appCtx.containsBean(executorRef) ?
+				appCtx.getBean(executorRef) :
+				expression(executorRef, bean));
+		if (!(executor instanceof Executor)) {
+			throw new IllegalArgumentException("Executor '" + executorRef + "' resolved to " + executor +
+					", which is not an Executor");
+		}
+		return (Executor) executor;
+	}
+
 	private Object parseSelector(Selector selector, Object bean, Method method) {
 		if (!StringUtils.hasText(selector.value())) {
 			return method.getName();
@@ -253,16 +361,23 @@ public class ConsumerBeanAutoConfiguration implements ApplicationListener<Contex
 		return object(sel);
 	}
 
+	/**
+	 * Notifies the value returned by a handler method to the reply-to key. Values of asynchronous methods are notified
+	 * as they complete, one reply per element of a {@link Publisher}, so that the dispatching thread does not wait on
+	 * them, and their errors are passed to the error consumer of the event.
+	 */
 	private final static class ReplyToServiceConsumer implements Consumer<Event> {
 
-		final private Bus reactor;
+		final private Bus        reactor;
 		final private Object     replyToKey;
 		final private Invoker    handler;
+		final private ResultType resultType;
 
 		ReplyToServiceConsumer(Bus reactor, Object replyToKey, Invoker handler) {
 			this.reactor = reactor;
 			this.replyToKey = replyToKey;
 			this.handler = handler;
+			this.resultType = ResultType.of(handler.getMethod().getReturnType());
 		}
 
 		public Bus getReactor() {
@@ -283,22 +398,33 @@ public class ConsumerBeanAutoConfiguration implements ApplicationListener<Contex
 			try {
 				result = handler.apply(ev);
 			} catch (Exception ex) {
-				if(ev.getErrorConsumer() != null) {
-					ev.consumeError(ex);
+				consumeError(ev, ex);
+				if (resultType != ResultType.VALUE) {
+					return;
 				}
 			}
-			Object _replyToKey = replyToKey != null ? replyToKey : ev.getReplyTo();
-			if (_replyToKey != null) {
-				reactor.notify(_replyToKey, Event.wrap(result));
+			final Object _replyToKey = replyToKey != null ? replyToKey : ev.getReplyTo();
+			if (resultType == ResultType.VALUE || null == result) {
+				if (_replyToKey != null) {
+					reactor.notify(_replyToKey, Event.wrap(result));
+				}
+				return;
 			}
+			resultType.subscribe(result, value -> {
+				if (_replyToKey != null) {
+					reactor.notify(_replyToKey, Event.wrap(value));
+				}
+			}, error -> consumeError(ev, error));
 		}
 	}
 
 	private final static class ServiceConsumer implements Consumer<Event> {
-		final private Invoker handler;
+		final private Invoker    handler;
+		final private ResultType resultType;
 
 		ServiceConsumer(Invoker handler) {
 			this.handler = handler;
+			this.resultType = ResultType.of(handler.getMethod().getReturnType());
 		}
 
 		public Invoker getHandler() {
@@ -307,22 +433,110 @@ public class ConsumerBeanAutoConfiguration implements ApplicationListener<Contex
 
 		@Override
 		public void accept(Event ev) {
-			handler.apply(ev);
+			Object result = handler.apply(ev);
+			if (resultType != ResultType.VALUE && null != result) {
+				resultType.subscribe(result, value -> {}, error -> consumeError(ev, error));
+			}
+		}
+	}
+
+	/**
+	 * How the value returned by a handler method completes, decided once from the declared return type.
+	 */
+	private enum ResultType {
+
+		VALUE {
+			@Override
+			void subscribe(Object result, Consumer<Object> onValue, Consumer<Throwable> onError) {
+				onValue.accept(result);
+			}
+		},
+
+		PUBLISHER {
+			@Override
+			@SuppressWarnings("unchecked")
+			void subscribe(Object result, Consumer<Object> onValue, Consumer<Throwable> onError) {
+				Flux.from((Publisher<Object>) result).subscribe(onValue, onError);
+			}
+		},
+
+		COMPLETION_STAGE {
+			@Override
+			@SuppressWarnings("unchecked")
+			void subscribe(Object result, Consumer<Object> onValue, Consumer<Throwable> onError) {
+				((CompletionStage<Object>) result).whenComplete((value, error) -> {
+					if (null == error) {
+						onValue.accept(value);
+					} else {
+						onError.accept(error instanceof CompletionException && null != error.getCause() ?
+								error.getCause() : error);
+					}
+				});
+			}
+		},
+
+		LISTENABLE_FUTURE {
+			@Override
+			@SuppressWarnings("unchecked")
+			void subscribe(Object result, Consumer<Object> onValue, Consumer<Throwable> onError) {
+				((ListenableFuture<Object>) result).addCallback(onValue::accept, onError::accept);
+			}
+		};
+
+		abstract void subscribe(Object result, Consumer<Object> onValue, Consumer<Throwable> onError);
+
+		static ResultType of(Class<?> returnType) {
+			if (Publisher.class.isAssignableFrom(returnType)) {
+				return PUBLISHER;
+			}
+			if (CompletionStage.class.isAssignableFrom(returnType)) {
+				return COMPLETION_STAGE;
+			}
+			if (ListenableFuture.class.isAssignableFrom(returnType)) {
+				return LISTENABLE_FUTURE;
+			}
+			return VALUE;
+		}
+	}
+
+	private static void consumeError(Event ev, Throwable error) {
+		if (ev.getErrorConsumer() != null) {
+			ev.consumeError(error);
+		} else {
+			LOG.error("No error consumer for " + ev, error);
 		}
 	}
 
+	/**
+	 * Invokes a handler method with the arguments resolved from each event. Each parameter gets an {@link
+	 * ArgumentResolver} when the method is wired, according to its type and annotations, so that invoking the method
+	 * involves no reflection nor annotation lookup. A batched method is invoked with the events of a batch, resolved
+	 * one by one into a {@link List} or a {@link Flux}.
+	 */
 	private final static class Invoker implements Function<Event, Object> {
 
-		final private Method            method;
-		final private Object            bean;
-		final private Class<?>[]        argTypes;
-		final private ConversionService conversionService;
+		final private Method             method;
+		final private Object             bean;
+		final private Class<?>[]         argTypes;
+		final private MethodInvoker      invoker;
+		final private ArgumentResolver[] argumentResolvers;
 
-		Invoker(Method method, Object bean, ConversionService conversionService) {
+		Invoker(Method method, Object bean, ConversionService conversionService, boolean batched) {
 			this.method = method;
 			this.bean = bean;
-			this.conversionService = conversionService;
 			this.argTypes = method.getParameterTypes();
+			this.invoker = MethodInvoker.create(bean, method);
+			this.argumentResolvers = new ArgumentResolver[argTypes.length];
+			if (batched) {
+				if (argTypes.length != 1) {
+					throw new IllegalArgumentException("Batched method " + method + " must take a single parameter");
+				}
+				argumentResolvers[0] = createBatchResolver(new MethodParameter(method, 0), conversionService);
+				return;
+			}
+			for (int i = 0; i < argTypes.length; i++) {
+				argumentResolvers[i] = createArgumentResolver(new MethodParameter(method, i), conversionService);
+			}
 		}
 
 		public Method getMethod() {
@@ -339,45 +553,156 @@ public class ConsumerBeanAutoConfiguration implements ApplicationListener<Contex
 
 		@Override
 		public Object apply(Event ev) {
-			if (argTypes.length == 0) {
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Invoking method[" + method + "] on " + bean.getClass() + " using " + ev);
-				}
-				return ReflectionUtils.invokeMethod(method, bean);
+			if (LOG.isDebugEnabled()) {
+				LOG.debug("Invoking method[" + method + "] on " + bean.getClass() + " using " + ev);
 			}
-
-			if (argTypes.length > 1) {
-				throw new IllegalStateException("Multiple parameters not yet supported.");
+			switch (argumentResolvers.length) {
+				case 0:
+					return invoker.invoke(null);
+				case 1:
+					return invoker.invoke(argumentResolvers[0].resolve(ev));
+				default:
+					Object[] args = new Object[argumentResolvers.length];
+					for (int i = 0; i < args.length; i++) {
+						args[i] = argumentResolvers[i].resolve(ev);
+					}
+					return invoker.invokeWithArguments(args);
 			}
+		}
 
-			if (Event.class.isAssignableFrom(argTypes[0])) {
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Invoking method[" + method + "] on " + bean.getClass() + " using " + ev);
-				}
-				return ReflectionUtils.invokeMethod(method, bean, ev);
+		private ArgumentResolver createArgumentResolver(MethodParameter parameter,
+		                                                ConversionService conversionService) {
+			Class<?> type = parameter.getParameterType();
+			Header header = parameter.getParameterAnnotation(Header.class);
+			if (null != header) {
+				final String name = header.value();
+				return new ConvertingArgumentResolver(method, type, conversionService, "header '" + name + "'",
+						header.required(), false, ev -> ev.getHeaders().get(name));
 			}
-
-			if (null == ev.getData() || argTypes[0].isAssignableFrom(ev.getData().getClass())) {
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Invoking method[" + method + "] on " + bean.getClass() + " using " + ev.getData());
+			if (parameter.hasParameterAnnotation(Key.class)) {
+				return new ConvertingArgumentResolver(method, type, conversionService, "key", false, false,
+						Event::getKey);
+			}
+			if (parameter.hasParameterAnnotation(ReplyToKey.class)) {
+				return new ConvertingArgumentResolver(method, type, conversionService, "reply-to key", false, false,
+						Event::getReplyTo);
+			}
+			if (!parameter.hasParameterAnnotation(Payload.class)) {
+				if (Event.class.isAssignableFrom(type)) {
+					return ev -> ev;
+				}
+				if (Event.Headers.class.isAssignableFrom(type)) {
+					return Event::getHeaders;
 				}
-				return ReflectionUtils.invokeMethod(method, bean, ev.getData());
 			}
-
-			if (!argTypes[0].isAssignableFrom(ev.getClass())
-					&& conversionService.canConvert(ev.getClass(), argTypes[0])) {
-				return ReflectionUtils.invokeMethod(method, bean, conversionService.convert(ev, argTypes[0]));
+			return new ConvertingArgumentResolver(method, type, conversionService, "payload", false, true,
+					Event::getData);
+		}
+
+		@SuppressWarnings("unchecked")
+		private ArgumentResolver createBatchResolver(MethodParameter parameter, ConversionService conversionService) {
+			Class<?> type = parameter.getParameterType();
+			ResolvableType resolvableType = ResolvableType.forMethodParameter(parameter);
+			final boolean flux;
+			if (type.isAssignableFrom(List.class)) {
+				flux = false;
+				resolvableType = resolvableType.as(Iterable.class);
+			} else if (type.isAssignableFrom(Flux.class)) {
+				flux = true;
+				resolvableType = resolvableType.as(Publisher.class);
+			} else {
+				throw new IllegalArgumentException("Batched method " + method + " must take a List or a Flux");
 			}
+			Class<?> elementType = resolvableType.getGeneric(0).resolve(Object.class);
+			final ArgumentResolver elementResolver = Event.class.isAssignableFrom(elementType) ?
+					ev -> ev :
+					new ConvertingArgumentResolver(method, elementType, conversionService, "payload", false, true,
+							Event::getData);
+			return batchEvent -> {
+				List<Event> events = (List<Event>) batchEvent.getData();
+				List<Object> elements = new ArrayList<Object>(events.size());
+				for (Event ev : events) {
+					elements.add(elementResolver.resolve(ev));
+				}
+				return flux ? Flux.fromIterable(elements) : elements;
+			};
+		}
+	}
 
-			if (conversionService.canConvert(ev.getData().getClass(), argTypes[0])) {
-				Object convertedObj = conversionService.convert(ev.getData(), argTypes[0]);
-				if (LOG.isDebugEnabled()) {
-					LOG.debug("Invoking method[" + method + "] on " + bean.getClass() + " using " + convertedObj);
+	/**
+	 * Resolves the argument of a handler method parameter from an event.
+	 */
+	private interface ArgumentResolver {
+		Object resolve(Event ev);
+	}
+
+	/**
+	 * Resolves an argument from a value of the event, converted to the parameter type when it is not an instance of
+	 * it. Whether the {@link ConversionService} can convert a given type is only asked once per type.
+	 */
+	private final static class ConvertingArgumentResolver implements ArgumentResolver {
+
+		final private Method                  method;
+		final private Class<?>                type;
+		final private ConversionService       conversionService;
+		final private String                  description;
+		final private boolean                 required;
+		final private boolean                 convertEvent;
+		final private Function<Event, Object> valueExtractor;
+		final private Map<Class<?>, Boolean>  eventConversions = new ConcurrentHashMap<Class<?>, Boolean>();
+		final private Map<Class<?>, Boolean>  valueConversions = new ConcurrentHashMap<Class<?>, Boolean>();
+
+		/**
+		 * @param method            the handler method
+		 * @param type              the parameter type
+		 * @param conversionService the conversion service, possibly {@code null}
+		 * @param description       describes the value in error messages
+		 * @param required          whether a {@code null} value fails the invocation
+		 * @param convertEvent      whether to try converting the whole event before converting the value
+		 * @param valueExtractor    extracts the value from the event
+		 */
+		ConvertingArgumentResolver(Method method, Class<?> type, ConversionService conversionService,
+		                           String description, boolean required, boolean convertEvent,
+		                           Function<Event, Object> valueExtractor) {
+			this.method = method;
+			this.type = type;
+			this.conversionService = conversionService;
+			this.description = description;
+			this.required = required;
+			this.convertEvent = convertEvent;
+			this.valueExtractor = valueExtractor;
+		}
+
+		@Override
+		public Object resolve(Event ev) {
+			Object value = valueExtractor.apply(ev);
+			if (null == value) {
+				if (required) {
+					throw new IllegalArgumentException("Cannot invoke method " + method + " without " + description);
 				}
-				return ReflectionUtils.invokeMethod(method, bean, convertedObj);
+				return null;
+			}
+			if (ClassUtils.isAssignableValue(type, value)) {
+				return value;
 			}
+			if (convertEvent && canConvert(eventConversions, ev.getClass())) {
+				return conversionService.convert(ev, type);
+			}
+			if (canConvert(valueConversions, value.getClass())) {
+				return conversionService.convert(value, type);
+			}
+			throw new IllegalArgumentException("Cannot invoke method " + method + " passing " + description + " " +
+					value);
+		}
 
-			throw new IllegalArgumentException("Cannot invoke method " + method + " passing parameter " + ev.getData());
+		private boolean canConvert(Map<Class<?>, Boolean> conversions, Class<?> sourceType) {
+			Boolean canConvert = conversions.get(sourceType);
+			if (null == canConvert) {
+				canConvert = (null != conversionService && !type.isAssignableFrom(sourceType) &&
+						conversionService.canConvert(sourceType, type));
+				conversions.put(sourceType, canConvert);
+			}
+			return canConvert;
 		}
 	}
 
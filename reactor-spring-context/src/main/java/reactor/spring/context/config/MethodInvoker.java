@@ -0,0 +1,260 @@
+package reactor.spring.context.config;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Invokes a handler method on its bean through code generated once, when the method is wired, rather than through
+ * reflection on every call.
+ * <p>Methods of up to two parameters the generated code can link to, public methods of public classes with public
+ * parameter and return types, are compiled with {@link LambdaMetafactory} into an implementation of a {@code
+ * java.util.function} interface bound to the bean, so that invoking them is a plain interface call the JIT can inline.
+ * Other methods are called through a {@link MethodHandle} bound to the bean. Static methods are called without it.</p>
+ *
+ * @author Stephane Maldini
+ */
+abstract class MethodInvoker {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MethodInvoker.class);
+
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+	/**
+	 * Compile an invoker of a method.
+	 *
+	 * @param bean   the bean to invoke the method on, unused if the method is static
+	 * @param method the method
+	 * @return the invoker
+	 */
+	static MethodInvoker create(Object bean, Method method) {
+		Assert.notNull(bean, "Bean cannot be null");
+		ReflectionUtils.makeAccessible(method);
+		MethodHandle handle;
+		try {
+			handle = LOOKUP.unreflect(method);
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("Cannot access method " + method, e);
+		}
+		if (method.getParameterCount() <= 2 && isLinkable(method)) {
+			try {
+				return compile(bean, method, handle);
+			} catch (Throwable t) {
+				if (LOG.isDebugEnabled()) {
+					LOG.debug("Falling back to a MethodHandle to invoke " + method, t);
+				}
+			}
+		}
+		int parameterCount = method.getParameterCount();
+		MethodHandle bound = (Modifier.isStatic(method.getModifiers()) ? handle : handle.bindTo(bean));
+		return new MethodHandleInvoker(bound.asType(MethodType.genericMethodType(parameterCount)), parameterCount);
+	}
+
+	/**
+	 * Invoke a method taking at most one parameter. Checked exceptions thrown by the method are wrapped in an {@link
+	 * java.lang.reflect.UndeclaredThrowableException}, like {@link ReflectionUtils#invokeMethod} does.
+	 *
+	 * @param arg the argument, ignored if the method takes none
+	 * @return the value returned by the method, or {@code null} if it is {@code void}
+	 */
+	final Object invoke(Object arg) {
+		try {
+			return doInvoke(arg);
+		} catch (Throwable t) {
+			ReflectionUtils.rethrowRuntimeException(t);
+			return null;
+		}
+	}
+
+	/**
+	 * Invoke a method taking several parameters. Checked exceptions thrown by the method are wrapped in an {@link
+	 * java.lang.reflect.UndeclaredThrowableException}, like {@link ReflectionUtils#invokeMethod} does.
+	 *
+	 * @param args the arguments, one per parameter
+	 * @return the value returned by the method, or {@code null} if it is {@code void}
+	 */
+	final Object invokeWithArguments(Object[] args) {
+		try {
+			return doInvokeWithArguments(args);
+		} catch (Throwable t) {
+			ReflectionUtils.rethrowRuntimeException(t);
+			return null;
+		}
+	}
+
+	Object doInvoke(Object arg) throws Throwable {
+		throw new IllegalStateException("Method takes several parameters");
+	}
+
+	Object doInvokeWithArguments(Object[] args) throws Throwable {
+		throw new IllegalStateException("Method takes at most one parameter");
+	}
+
+	private static MethodInvoker compile(Object bean, Method method, MethodHandle handle) throws Throwable {
+		Class<?> returnType = method.getReturnType();
+		Class<?> boxedReturnType = ClassUtils.resolvePrimitiveIfNecessary(returnType);
+		if (method.getParameterCount() == 0) {
+			if (returnType == void.class) {
+				Runnable runnable = (Runnable) spin(bean, handle, Runnable.class, "run",
+						MethodType.methodType(void.class), MethodType.methodType(void.class));
+				return new MethodInvoker() {
+					@Override
+					Object doInvoke(Object arg) {
+						runnable.run();
+						return null;
+					}
+				};
+			}
+			Supplier<?> supplier = (Supplier<?>) spin(bean, handle, Supplier.class, "get",
+					MethodType.methodType(Object.class), MethodType.methodType(boxedReturnType));
+			return new MethodInvoker() {
+				@Override
+				Object doInvoke(Object arg) {
+					return supplier.get();
+				}
+			};
+		}
+
+		if (method.getParameterCount() == 2) {
+			return compileBinary(bean, method, handle, boxedReturnType);
+		}
+
+		Class<?> boxedParameterType = ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0]);
+		if (returnType == void.class) {
+			@SuppressWarnings("unchecked")
+			Consumer<Object> consumer = (Consumer<Object>) spin(bean, handle, Consumer.class, "accept",
+					MethodType.methodType(void.class, Object.class),
+					MethodType.methodType(void.class, boxedParameterType));
+			return new MethodInvoker() {
+				@Override
+				Object doInvoke(Object arg) {
+					consumer.accept(arg);
+					return null;
+				}
+			};
+		}
+		@SuppressWarnings("unchecked")
+		Function<Object, Object> function = (Function<Object, Object>) spin(bean, handle, Function.class, "apply",
+				MethodType.methodType(Object.class, Object.class),
+				MethodType.methodType(boxedReturnType, boxedParameterType));
+		return new MethodInvoker() {
+			@Override
+			Object doInvoke(Object arg) {
+				return function.apply(arg);
+			}
+		};
+	}
+
+	private static MethodInvoker compileBinary(Object bean, Method method, MethodHandle handle,
+	                                           Class<?> boxedReturnType) throws Throwable {
+		Class<?> firstType = ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0]);
+		Class<?> secondType = ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[1]);
+		if (method.getReturnType() == void.class) {
+			@SuppressWarnings("unchecked")
+			BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) spin(bean, handle, BiConsumer.class,
+					"accept", MethodType.methodType(void.class, Object.class, Object.class),
+					MethodType.methodType(void.class, firstType, secondType));
+			return new MethodInvoker() {
+				@Override
+				Object doInvokeWithArguments(Object[] args) {
+					consumer.accept(args[0], args[1]);
+					return null;
+				}
+			};
+		}
+		@SuppressWarnings("unchecked")
+		BiFunction<Object, Object, Object> function = (BiFunction<Object, Object, Object>) spin(bean, handle,
+				BiFunction.class, "apply", MethodType.methodType(Object.class, Object.class, Object.class),
+				MethodType.methodType(boxedReturnType, firstType, secondType));
+		return new MethodInvoker() {
+			@Override
+			Object doInvokeWithArguments(Object[] args) {
+				return function.apply(args[0], args[1]);
+			}
+		};
+	}
+
+	private static Object spin(Object bean, MethodHandle handle, Class<?> functionalInterface, String name,
+	                           MethodType erasedType, MethodType instantiatedType) throws Throwable {
+		// the handle of an instance method takes the bean first, which the lambda captures, unlike a static one
+		if (handle.type().parameterCount() == erasedType.parameterCount()) {
+			return LambdaMetafactory.metafactory(LOOKUP, name, MethodType.methodType(functionalInterface), erasedType,
+					handle, instantiatedType).getTarget().invoke();
+		}
+		CallSite site = LambdaMetafactory.metafactory(LOOKUP, name,
+				MethodType.methodType(functionalInterface, handle.type().parameterType(0)), erasedType, handle,
+				instantiatedType);
+		return site.getTarget().invoke(bean);
+	}
+
+	private static boolean isLinkable(Method method) {
+		if (!Modifier.isPublic(method.getModifiers()) || !isLinkable(method.getDeclaringClass()) ||
+				!isLinkable(method.getReturnType())) {
+			return false;
+		}
+		for (Class<?> parameterType : method.getParameterTypes()) {
+			if (!isLinkable(parameterType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isLinkable(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		if (!ClassUtils.isVisible(type, MethodInvoker.class.getClassLoader())) {
+			return false;
+		}
+		for (Class<?> c = type; null != c; c = c.getEnclosingClass()) {
+			if (!Modifier.isPublic(c.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static final class MethodHandleInvoker extends MethodInvoker {
+		private final MethodHandle handle;
+		private final int          parameterCount;
+
+		MethodHandleInvoker(MethodHandle handle, int parameterCount) {
+			this.handle = (parameterCount > 1 ? handle.asSpreader(Object[].class, parameterCount) : handle);
+			this.parameterCount = parameterCount;
+		}
+
+		@Override
+		Object doInvoke(Object arg) throws Throwable {
+			if (parameterCount == 0) {
+				return (Object) handle.invokeExact();
+			}
+			return (Object) handle.invokeExact(arg);
+		}
+
+		@Override
+		Object doInvokeWithArguments(Object[] args) throws Throwable {
+			return (Object) handle.invokeExact(args);
+		}
+	}
+
+}
@@ -0,0 +1,155 @@
+package reactor.spring.context.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.bus.Event;
+import reactor.spring.context.annotation.OverflowStrategy;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link Consumer} offloading a handler from the thread dispatching events to an {@link Executor}, so that a slow
+ * handler does not hold up the other consumers of its bus. Events are queued in a bounded queue and taken by up to
+ * {@code concurrency} tasks running on the executor, each handling events until the queue is empty. With a
+ * concurrency of {@code 1}, events are handled one at a time in the order they were received. The {@link
+ * OverflowStrategy} applies to events received while the queue is full.
+ *
+ * @author Stephane Maldini
+ */
+final class OffloadingConsumer implements Consumer<Event> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OffloadingConsumer.class);
+
+	private final BlockingQueue<Event> queue;
+	private final AtomicInteger        workers   = new AtomicInteger();
+	private final Runnable             drainTask = this::drain;
+	private final Consumer<Event>      delegate;
+	private final Executor             executor;
+	private final int                  concurrency;
+	private final OverflowStrategy     overflowStrategy;
+
+	/**
+	 * @param delegate         the consumer to offload
+	 * @param executor         the executor to run the consumer on
+	 * @param concurrency      the maximum number of events handled at once
+	 * @param queueSize        the capacity of the queue of events waiting for the consumer
+	 * @param overflowStrategy what happens to events received while the queue is full
+	 */
+	OffloadingConsumer(Consumer<Event> delegate, Executor executor, int concurrency, int queueSize,
+	                   OverflowStrategy overflowStrategy) {
+		Assert.notNull(executor, "Executor cannot be null");
+		Assert.isTrue(concurrency > 0, "Concurrency must be positive");
+		Assert.isTrue(queueSize > 0, "Queue size must be positive");
+		this.delegate = delegate;
+		this.executor = executor;
+		this.concurrency = concurrency;
+		this.queue = new ArrayBlockingQueue<Event>(queueSize);
+		this.overflowStrategy = overflowStrategy;
+	}
+
+	@Override
+	public void accept(Event ev) {
+		if (!enqueue(ev)) {
+			return;
+		}
+		int n = workers.get();
+		while (n < concurrency) {
+			if (workers.compareAndSet(n, n + 1)) {
+				startWorker();
+				return;
+			}
+			n = workers.get();
+		}
+	}
+
+	private boolean enqueue(Event ev) {
+		if (queue.offer(ev)) {
+			return true;
+		}
+		switch (overflowStrategy) {
+			case BLOCK:
+				try {
+					queue.put(ev);
+					return true;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					reject(ev);
+					return false;
+				}
+			case DROP_OLDEST:
+				do {
+					Event dropped = queue.poll();
+					if (null != dropped) {
+						drop(dropped);
+					}
+				} while (!queue.offer(ev));
+				return true;
+			case ERROR:
+				reject(ev);
+				return false;
+			default:
+				drop(ev);
+				return false;
+		}
+	}
+
+	private void startWorker() {
+		try {
+			executor.execute(drainTask);
+		} catch (RejectedExecutionException e) {
+			workers.decrementAndGet();
+			Event ev;
+			while (null != (ev = queue.poll())) {
+				consumeError(ev, e);
+			}
+		}
+	}
+
+	private void drain() {
+		for (; ; ) {
+			Event ev;
+			while (null != (ev = queue.poll())) {
+				try {
+					delegate.accept(ev);
+				} catch (Throwable t) {
+					consumeError(ev, t);
+				}
+			}
+			workers.decrementAndGet();
+			// an event queued after the last poll may have found this worker still counted, so look again
+			if (queue.isEmpty()) {
+				return;
+			}
+			int n = workers.get();
+			if (n >= concurrency || !workers.compareAndSet(n, n + 1)) {
+				return;
+			}
+		}
+	}
+
+	private void drop(Event ev) {
+		if (LOG.isDebugEnabled()) {
+			LOG.debug("Dropped " + ev + ", the queue of " + delegate + " is full");
+		}
+	}
+
+	private void reject(Event ev) {
+		consumeError(ev, new RejectedExecutionException("Queue of " + delegate + " is full"));
+	}
+
+	private static void consumeError(Event ev, Throwable error) {
+		if (ev.getErrorConsumer() != null) {
+			ev.consumeError(error);
+		} else {
+			LOG.error("", error);
+		}
+	}
+
+}
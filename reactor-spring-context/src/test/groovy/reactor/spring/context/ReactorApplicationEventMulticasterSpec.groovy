@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc., Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.spring.context
+
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.ApplicationListener
+import org.springframework.context.annotation.AnnotationConfigApplicationContext
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * @author Stephane Maldini
+ */
+class ReactorApplicationEventMulticasterSpec extends Specification {
+
+	def "Events are dispatched to matching listeners in order"() {
+
+		given:
+			"an ApplicationContext using a ReactorApplicationEventMulticaster"
+			def appCtx = new AnnotationConfigApplicationContext(MulticasterConfig)
+			def first = appCtx.getBean('firstListener', CountingListener)
+			def second = appCtx.getBean('secondListener', CountingListener)
+
+		when:
+			"events are published"
+			(1..100).each { appCtx.publishEvent(new CountingEvent(appCtx, it)) }
+
+		then:
+			"every listener has seen every event in order"
+			first.latch.await(5, TimeUnit.SECONDS)
+			second.latch.await(5, TimeUnit.SECONDS)
+			first.counts == (1..100)
+			second.counts == (1..100)
+
+		cleanup:
+			appCtx.close()
+
+	}
+
+	def "Listeners added after the first dispatch are picked up"() {
+
+		given:
+			"a multicaster that has already resolved listeners for an event type"
+			def multicaster = new ReactorApplicationEventMulticaster(2, 64)
+			def first = new CountingListener(2)
+			multicaster.addApplicationListener(first)
+			multicaster.multicastEvent(new CountingEvent(this, 1))
+
+		when:
+			"a new listener is added and another event is multicast"
+			def second = new CountingListener(1)
+			multicaster.addApplicationListener(second)
+			multicaster.multicastEvent(new CountingEvent(this, 2))
+
+		then:
+			"both listeners received the last event"
+			first.latch.await(5, TimeUnit.SECONDS)
+			second.latch.await(5, TimeUnit.SECONDS)
+			first.counts == [1, 2]
+			second.counts == [2]
+
+		cleanup:
+			multicaster.destroy()
+
+	}
+
+}
+
+class CountingEvent extends ApplicationEvent {
+	final int count
+
+	CountingEvent(Object source, int count) {
+		super(source)
+		this.count = count
+	}
+}
+
+class CountingListener implements ApplicationListener<CountingEvent> {
+	final List<Integer> counts = new CopyOnWriteArrayList<>()
+	final CountDownLatch latch
+
+	CountingListener(int expected) {
+		latch = new CountDownLatch(expected)
+	}
+
+	@Override
+	void onApplicationEvent(CountingEvent event) {
+		counts << event.count
+		latch.countDown()
+	}
+}
+
+@Configuration
+class MulticasterConfig {
+
+	@Bean
+	ReactorApplicationEventMulticaster applicationEventMulticaster() {
+		new ReactorApplicationEventMulticaster(2, 256)
+	}
+
+	@Bean
+	CountingListener firstListener() {
+		new CountingListener(100)
+	}
+
+	@Bean
+	CountingListener secondListener() {
+		new CountingListener(100)
+	}
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc., Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.spring.context
+
+import org.springframework.context.ApplicationEvent
+import org.springframework.context.ApplicationListener
+import org.springframework.context.PayloadApplicationEvent
+import org.springframework.context.annotation.AnnotationConfigApplicationContext
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * @author Stephane Maldini
+ */
+class RingBufferApplicationEventPublisherSpec extends Specification {
+
+	def "Events of a given type are dispatched in order across multiple consumers"() {
+
+		given:
+			"an ApplicationContext with a multi-consumer RingBufferApplicationEventPublisher"
+			def appCtx = new AnnotationConfigApplicationContext(PublisherConfig)
+			def publisher = appCtx.getBean(RingBufferApplicationEventPublisher)
+			def listener = appCtx.getBean(CountingListener)
+
+		when:
+			"events are published"
+			(1..100).each { publisher.publishEvent(new CountingEvent(appCtx, it)) }
+
+		then:
+			"the listener has seen every event in order"
+			listener.latch.await(5, TimeUnit.SECONDS)
+			listener.counts == (1..100)
+
+		cleanup:
+			appCtx.close()
+
+	}
+
+	def "Arbitrary objects are published as PayloadApplicationEvents"() {
+
+		given:
+			"an ApplicationContext with a multi-consumer RingBufferApplicationEventPublisher"
+			def appCtx = new AnnotationConfigApplicationContext(PublisherConfig)
+			def publisher = appCtx.getBean(RingBufferApplicationEventPublisher)
+			def listener = appCtx.getBean(PayloadListener)
+
+		when:
+			"plain objects are published"
+			(1..10).each { publisher.publishEvent("Hello World $it".toString()) }
+
+		then:
+			"the payload listener has received them in order"
+			listener.latch.await(5, TimeUnit.SECONDS)
+			listener.payloads == (1..10).collect { "Hello World $it".toString() }
+
+		cleanup:
+			appCtx.close()
+
+	}
+
+	def "Pending CoalescingEvents are replaced by newer ones with the same key"() {
+
+		given:
+			"an ApplicationContext with a RingBufferApplicationEventPublisher that has not started yet"
+			def appCtx = new AnnotationConfigApplicationContext(CoalescingPublisherConfig)
+			def publisher = appCtx.getBean(RingBufferApplicationEventPublisher)
+			def listener = appCtx.getBean(ProgressListener)
+
+		when:
+			"updates for two keys are published before the consumer starts"
+			(1..50).each {
+				publisher.publishEvent(new ProgressEvent(appCtx, 'a', it))
+				publisher.publishEvent(new ProgressEvent(appCtx, 'b', it))
+			}
+			publisher.start()
+
+		then:
+			"only the latest update of each key is dispatched"
+			listener.latch.await(5, TimeUnit.SECONDS)
+			listener.progress == [a: 50, b: 50]
+			publisher.getConflatedCount('a') == 49
+			publisher.conflatedCounts == [a: 49L, b: 49L]
+
+		cleanup:
+			appCtx.close()
+
+	}
+
+}
+
+class ProgressEvent extends ApplicationEvent implements CoalescingEvent {
+	final String task
+	final int progress
+
+	ProgressEvent(Object source, String task, int progress) {
+		super(source)
+		this.task = task
+		this.progress = progress
+	}
+
+	@Override
+	Object getCoalescingKey() {
+		task
+	}
+}
+
+class ProgressListener implements ApplicationListener<ProgressEvent> {
+	final Map<String, Integer> progress = [:].asSynchronized()
+	final CountDownLatch latch = new CountDownLatch(2)
+
+	@Override
+	void onApplicationEvent(ProgressEvent event) {
+		progress[event.task] = event.progress
+		latch.countDown()
+	}
+}
+
+@Configuration
+class CoalescingPublisherConfig {
+
+	@Bean
+	RingBufferApplicationEventPublisher ringBufferApplicationEventPublisher() {
+		new RingBufferApplicationEventPublisher(256, false)
+	}
+
+	@Bean
+	ProgressListener progressListener() {
+		new ProgressListener()
+	}
+
+}
+
+class PayloadListener implements ApplicationListener<PayloadApplicationEvent<String>> {
+	final List<String> payloads = new CopyOnWriteArrayList<>()
+	final CountDownLatch latch = new CountDownLatch(10)
+
+	@Override
+	void onApplicationEvent(PayloadApplicationEvent<String> event) {
+		payloads << event.payload
+		latch.countDown()
+	}
+}
+
+@Configuration
+class PublisherConfig {
+
+	@Bean
+	RingBufferApplicationEventPublisher ringBufferApplicationEventPublisher() {
+		new RingBufferApplicationEventPublisher(256, 4, true)
+	}
+
+	@Bean
+	CountingListener countingListener() {
+		new CountingListener(100)
+	}
+
+	@Bean
+	PayloadListener payloadListener() {
+		new PayloadListener()
+	}
+
+}
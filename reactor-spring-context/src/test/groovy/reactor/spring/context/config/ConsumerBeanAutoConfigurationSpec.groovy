@@ -24,16 +24,31 @@ import org.springframework.context.annotation.Configuration
 import org.springframework.core.convert.ConversionService
 import org.springframework.core.convert.converter.Converter
 import org.springframework.core.convert.support.DefaultConversionService
+import org.springframework.util.concurrent.ListenableFuture
+import org.springframework.util.concurrent.SettableListenableFuture
 import reactor.bus.Event
 import reactor.bus.EventBus
+import reactor.core.publisher.Flux
+import reactor.core.publisher.Mono
 import reactor.core.publisher.TopicProcessor
 import reactor.spring.context.annotation.Consumer
+import reactor.spring.context.annotation.Header
+import reactor.spring.context.annotation.Key
+import reactor.spring.context.annotation.OverflowStrategy
+import reactor.spring.context.annotation.Payload
 import reactor.spring.context.annotation.ReplyTo
+import reactor.spring.context.annotation.ReplyToKey
 import reactor.spring.context.annotation.Selector
 import reactor.spring.context.annotation.SelectorType
 import spock.lang.Specification
 
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.RejectedExecutionException
 import java.util.concurrent.TimeUnit
 
 /**
@@ -97,6 +112,188 @@ class ConsumerBeanAutoConfigurationSpec extends Specification {
 
 	}
 
+	def "Annotated Consumer with a primitive parameter is invoked with converted values"() {
+		given:
+			"an ApplicationContext with an annotated bean handler"
+			def appCtx = new AnnotationConfigApplicationContext(AnnotatedHandlerConfig)
+			def handlerBean = appCtx.getBean(HandlerBean)
+			def reactor = appCtx.getBean(EventBus)
+
+		when:
+			"Events carrying numbers and numeric strings are emitted onto the Reactor in context"
+			reactor.notify('count', Event.wrap(1))
+			reactor.notify('count', Event.wrap("2"))
+			reactor.notify('count', Event.wrap("3"))
+
+		then:
+			"the method has been invoked with every value"
+			handlerBean.countLatch.await(1, TimeUnit.SECONDS)
+			handlerBean.total == 6
+
+	}
+
+	def "Annotated Consumer with several parameters is invoked with arguments resolved from the Event"() {
+		given:
+			"an ApplicationContext with an annotated bean handler"
+			def appCtx = new AnnotationConfigApplicationContext(AnnotatedHandlerConfig)
+			def handlerBean = appCtx.getBean(HandlerBean)
+			def reactor = appCtx.getBean(EventBus)
+			def headers = new Event.Headers().set('quantity', '3')
+			def ev = new Event(headers, 'apple').setReplyTo('order.reply')
+			def totalEv = new Event(new Event.Headers().set('unitPrice', 5), '2')
+
+		when:
+			"an Event with headers and a reply-to key is emitted onto the Reactor in context"
+			reactor.notify('order', ev)
+			reactor.notify('order.total', totalEv)
+
+		then:
+			"the methods have been invoked with the payload, header, key, reply-to key and Event"
+			handlerBean.orderLatch.await(1, TimeUnit.SECONDS)
+			handlerBean.orders == [['apple', 3, 'order', 'order.reply', ev]]
+			handlerBean.totals == [10L]
+
+	}
+
+	def "Static Consumer methods are invoked without the bean"() {
+		given:
+			"an ApplicationContext with an annotated bean handler"
+			def appCtx = new AnnotationConfigApplicationContext(AnnotatedHandlerConfig)
+			def reactor = appCtx.getBean(EventBus)
+
+		when:
+			"Events for static methods of no, one and several parameters are emitted onto the Reactor in context"
+			reactor.notify('static.ping', Event.wrap('ping'))
+			reactor.notify('static.payload', Event.wrap('hello'))
+			reactor.notify('static.order', new Event(new Event.Headers().set('quantity', '2'), 'pear'))
+
+		then:
+			"the static methods have been invoked"
+			HandlerBean.staticLatch.await(1, TimeUnit.SECONDS)
+			HandlerBean.staticCalls as Set == ['ping', 'hello', 'pear 2 static.order'] as Set
+
+	}
+
+	def "Annotated Consumer returning asynchronous values replies as they complete"() {
+		given:
+			"an ApplicationContext with an annotated bean handler"
+			def appCtx = new AnnotationConfigApplicationContext(AnnotatedHandlerConfig)
+			def handlerBean = appCtx.getBean(AsyncHandlerBean)
+			def reactor = appCtx.getBean(EventBus)
+			final errors = new CopyOnWriteArrayList<Throwable>()
+
+		when:
+			"Events are emitted onto the Reactor in context"
+			reactor.notify('async.mono', Event.wrap('mono'))
+			reactor.notify('async.flux', Event.wrap('flux'))
+			reactor.notify('async.future', Event.wrap('future'))
+			reactor.notify('async.listenable', Event.wrap('listenable'))
+			reactor.notify('async.error', new Event(null, 'error', { t -> errors << t }))
+
+		then:
+			"every value has been replied once completed and the error has been consumed"
+			handlerBean.latch.await(5, TimeUnit.SECONDS)
+			handlerBean.replies.sort() == ['FLUX 1', 'FLUX 2', 'FLUX 3', 'FUTURE', 'LISTENABLE', 'MONO']
+			errors.size() == 1
+			errors[0] instanceof CustomRuntimeException
+
+	}
+
+	def "Offloaded Consumers run on worker threads without holding up the others"() {
+		given:
+			"an ApplicationContext with offloaded bean handlers"
+			def appCtx = new AnnotationConfigApplicationContext(OffloadedHandlerConfig)
+			def handlerBean = appCtx.getBean(OffloadedHandlerBean)
+			def reactor = appCtx.getBean(EventBus)
+
+		when:
+			"an Event is emitted to a blocked offloaded handler and then to an inline one"
+			reactor.notify('slow', Event.wrap('slow'))
+			reactor.notify('fast', Event.wrap('fast'))
+
+		then:
+			"the inline handler has been invoked while the offloaded one is blocked"
+			handlerBean.fastLatch.await(1, TimeUnit.SECONDS)
+			handlerBean.slowLatch.count == 1
+
+		when:
+			"the offloaded handler is released and Events are emitted to a handler using an executor bean"
+			handlerBean.release.countDown()
+			(1..8).each { reactor.notify('pooled', Event.wrap(it)) }
+
+		then:
+			"the handlers have been invoked on their own threads"
+			handlerBean.slowLatch.await(1, TimeUnit.SECONDS)
+			handlerBean.slowThread.startsWith('OffloadedHandlerBean.handleSlow-')
+			handlerBean.pooledLatch.await(1, TimeUnit.SECONDS)
+			handlerBean.pooledThreads.every { it.startsWith('pool-') }
+
+		cleanup:
+			appCtx.close()
+
+	}
+
+	def "Offloaded Consumers apply their overflow strategy when their queue is full"() {
+		given:
+			"an ApplicationContext with offloaded bean handlers"
+			def appCtx = new AnnotationConfigApplicationContext(OffloadedHandlerConfig)
+			def handlerBean = appCtx.getBean(OffloadedHandlerBean)
+			def reactor = appCtx.getBean(EventBus)
+			final errors = new CopyOnWriteArrayList<Throwable>()
+
+		when:
+			"Events are emitted to blocked handlers with a queue of one"
+			['dropping', 'rejecting'].each { key ->
+				reactor.notify(key, new Event(null, 0, { t -> errors << t }))
+				assert handlerBean.blocked.poll(1, TimeUnit.SECONDS) == 0
+				(1..4).each { reactor.notify(key, new Event(null, it, { t -> errors << t })) }
+			}
+			handlerBean.release.countDown()
+
+		then:
+			"the events beyond the queue have been dropped or rejected"
+			handlerBean.overflowLatch.await(1, TimeUnit.SECONDS)
+			handlerBean.dropped.sort() == [0, 1]
+			handlerBean.rejected.sort() == [0, 1]
+			errors.size() == 3
+			errors.every { it instanceof RejectedExecutionException }
+
+		cleanup:
+			appCtx.close()
+
+	}
+
+	def "Batched Consumers are invoked once per batch with the events in order"() {
+		given:
+			"an ApplicationContext with batched bean handlers"
+			def appCtx = new AnnotationConfigApplicationContext(BatchHandlerConfig)
+			def handlerBean = appCtx.getBean(BatchHandlerBean)
+			def reactor = appCtx.getBean(EventBus)
+
+		when:
+			"Events are emitted to handlers batching by size and by timeout"
+			(1..7).each { reactor.notify('audit', Event.wrap("entry$it".toString())) }
+			(1..4).each { reactor.notify('persist', Event.wrap(it)) }
+
+		then:
+			"full batches have been passed to the handlers, and partial ones once their timeout expired"
+			handlerBean.persistLatch.await(1, TimeUnit.SECONDS)
+			handlerBean.auditLatch.count == 1
+			handlerBean.auditBatches == [['entry1', 'entry2', 'entry3'], ['entry4', 'entry5', 'entry6']]
+			handlerBean.persistBatches == [[1, 2, 3, 4]]
+			handlerBean.persistThread.startsWith('BatchHandlerBean.handlePersist-batch-')
+
+		when:
+			"the ApplicationContext is closed"
+			appCtx.close()
+
+		then:
+			"the partial batch has been passed to the handler"
+			handlerBean.auditLatch.await(1, TimeUnit.SECONDS)
+			handlerBean.auditBatches[-1] == ['entry7']
+
+	}
+
 }
 
 @EqualsAndHashCode
@@ -110,6 +307,13 @@ class HandlerBean {
 	@Autowired
 	EventBus eventBus
 	def latch = new CountDownLatch(1)
+	def countLatch = new CountDownLatch(3)
+	int total
+	def orders = new CopyOnWriteArrayList()
+	def totals = new CopyOnWriteArrayList()
+	def orderLatch = new CountDownLatch(2)
+	static final staticCalls = new CopyOnWriteArrayList<String>()
+	static final staticLatch = new CountDownLatch(3)
 
 	@Selector(value = '/{a}/{b}', type = SelectorType.URI)
 	void handleTest(Event<String> ev) {
@@ -129,6 +333,43 @@ class HandlerBean {
 		latch.countDown()
 	}
 
+	@Selector('count')
+	void handleCount(int count) {
+		total += count
+		countLatch.countDown()
+	}
+
+	@Selector('order')
+	void handleOrder(@Payload String item, @Header('quantity') int quantity, @Key String key,
+	                 @ReplyToKey Object replyTo, Event<String> ev) {
+		orders << [item, quantity, key, replyTo, ev]
+		orderLatch.countDown()
+	}
+
+	@Selector('order.total')
+	void handleTotal(long quantity, @Header('unitPrice') long unitPrice) {
+		totals << quantity * unitPrice
+		orderLatch.countDown()
+	}
+
+	@Selector('static.ping')
+	static void handleStaticPing() {
+		staticCalls << 'ping'
+		staticLatch.countDown()
+	}
+
+	@Selector('static.payload')
+	static void handleStaticPayload(String payload) {
+		staticCalls << payload
+		staticLatch.countDown()
+	}
+
+	@Selector('static.order')
+	static void handleStaticOrder(@Payload String item, @Header('quantity') int quantity, @Key String key) {
+		staticCalls << "$item $quantity $key".toString()
+		staticLatch.countDown()
+	}
+
 	@Selector(value = 'throws.exception')
 	@ReplyTo
 	String handleString(Event<String> ev) {
@@ -136,6 +377,181 @@ class HandlerBean {
 	}
 }
 
+@Consumer
+class AsyncHandlerBean {
+	@Autowired
+	EventBus eventBus
+	def replies = new CopyOnWriteArrayList<String>()
+	def latch = new CountDownLatch(6)
+
+	@Selector('async.mono')
+	@ReplyTo('async.reply')
+	Mono<String> handleMono(String value) {
+		Mono.delayMillis(50).map { value.toUpperCase() }
+	}
+
+	@Selector('async.flux')
+	@ReplyTo('async.reply')
+	Flux<String> handleFlux(String value) {
+		Flux.range(1, 3).map { "${value.toUpperCase()} $it".toString() }
+	}
+
+	@Selector('async.future')
+	@ReplyTo('async.reply')
+	CompletableFuture<String> handleFuture(String value) {
+		CompletableFuture.supplyAsync { value.toUpperCase() }
+	}
+
+	@Selector('async.listenable')
+	@ReplyTo('async.reply')
+	ListenableFuture<String> handleListenableFuture(String value) {
+		def future = new SettableListenableFuture<String>()
+		Thread.start { future.set(value.toUpperCase()) }
+		future
+	}
+
+	@Selector('async.error')
+	@ReplyTo('async.reply')
+	Mono<String> handleError(String value) {
+		Mono.error(new CustomRuntimeException('This is an exception'))
+	}
+
+	@Selector('async.reply')
+	void handleReply(String reply) {
+		replies << reply
+		latch.countDown()
+	}
+}
+
+@Consumer
+class OffloadedHandlerBean {
+	@Autowired
+	EventBus eventBus
+	def release = new CountDownLatch(1)
+	def slowLatch = new CountDownLatch(1)
+	def fastLatch = new CountDownLatch(1)
+	def pooledLatch = new CountDownLatch(8)
+	def overflowLatch = new CountDownLatch(4)
+	def blocked = new LinkedBlockingQueue<Integer>()
+	def pooledThreads = new CopyOnWriteArrayList<String>()
+	def dropped = new CopyOnWriteArrayList<Integer>()
+	def rejected = new CopyOnWriteArrayList<Integer>()
+	volatile String slowThread
+
+	@Selector(value = 'slow', concurrency = 1)
+	void handleSlow(String value) {
+		release.await()
+		slowThread = Thread.currentThread().name
+		slowLatch.countDown()
+	}
+
+	@Selector('fast')
+	void handleFast(String value) {
+		fastLatch.countDown()
+	}
+
+	@Selector(value = 'pooled', executor = 'workerPool', concurrency = 4)
+	void handlePooled(int value) {
+		pooledThreads << Thread.currentThread().name
+		pooledLatch.countDown()
+	}
+
+	@Selector(value = 'dropping', concurrency = 1, queueSize = 1, overflow = OverflowStrategy.DROP)
+	void handleDropping(int value) {
+		blocked << value
+		release.await()
+		dropped << value
+		overflowLatch.countDown()
+	}
+
+	@Selector(value = 'rejecting', concurrency = 1, queueSize = 1, overflow = OverflowStrategy.ERROR)
+	void handleRejecting(int value) {
+		blocked << value
+		release.await()
+		rejected << value
+		overflowLatch.countDown()
+	}
+}
+
+@Configuration
+class OffloadedHandlerConfig {
+
+	@Bean
+	Processor<Event<?>, Event<?>> env() {
+		TopicProcessor.create()
+	}
+
+	@Bean
+	EventBus eventBus(Processor<Event<?>, Event<?>> env) {
+		return EventBus.create(env)
+	}
+
+	@Bean
+	ConsumerBeanAutoConfiguration consumerBeanAutoConfiguration() {
+		return new ConsumerBeanAutoConfiguration()
+	}
+
+	@Bean(destroyMethod = 'shutdown')
+	ExecutorService workerPool() {
+		return Executors.newFixedThreadPool(4)
+	}
+
+	@Bean
+	OffloadedHandlerBean offloadedHandlerBean() {
+		return new OffloadedHandlerBean()
+	}
+
+}
+
+@Consumer
+class BatchHandlerBean {
+	@Autowired
+	EventBus eventBus
+	def auditBatches = new CopyOnWriteArrayList<List<String>>()
+	def persistBatches = new CopyOnWriteArrayList<List<Integer>>()
+	def auditLatch = new CountDownLatch(3)
+	def persistLatch = new CountDownLatch(1)
+	volatile String persistThread
+
+	@Selector(value = 'audit', batchSize = 3)
+	void handleAudit(List<String> entries) {
+		auditBatches << entries
+		auditLatch.countDown()
+	}
+
+	@Selector(value = 'persist', batchSize = 10, batchTimeout = 100L)
+	void handlePersist(Flux<Integer> values) {
+		persistBatches << values.collectList().block()
+		persistThread = Thread.currentThread().name
+		persistLatch.countDown()
+	}
+}
+
+@Configuration
+class BatchHandlerConfig {
+
+	@Bean
+	Processor<Event<?>, Event<?>> env() {
+		TopicProcessor.create()
+	}
+
+	@Bean
+	EventBus eventBus(Processor<Event<?>, Event<?>> env) {
+		return EventBus.create(env)
+	}
+
+	@Bean
+	ConsumerBeanAutoConfiguration consumerBeanAutoConfiguration() {
+		return new ConsumerBeanAutoConfiguration()
+	}
+
+	@Bean
+	BatchHandlerBean batchHandlerBean() {
+		return new BatchHandlerBean()
+	}
+
+}
+
 class EventToCustomEventConverter implements Converter<Event, CustomEvent> {
 
 	@Override
@@ -177,6 +593,11 @@ class AnnotatedHandlerConfig {
 		return new HandlerBean()
 	}
 
+	@Bean
+	AsyncHandlerBean asyncHandlerBean() {
+		return new AsyncHandlerBean()
+	}
+
 	@Bean
 	ConversionService reactorConversionService() {
 		DefaultConversionService defaultConversionService = new DefaultConversionService()
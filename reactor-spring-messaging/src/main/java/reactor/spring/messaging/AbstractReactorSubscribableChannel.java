@@ -0,0 +1,495 @@
+package reactor.spring.messaging;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Cancellation;
+import reactor.core.Exceptions;
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.TopicProcessor;
+import reactor.core.publisher.WorkQueueProcessor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Abstract base class for {@link SubscribableChannel} implementations publishing messages to a RingBuffer-based
+ * Reactor {@link FluxProcessor}.
+ * <p>{@link #send(Message, long)} honours its timeout: a message that cannot be published because the {@code
+ * RingBuffer} stays full for the whole timeout is rejected and {@code false} is returned. A timeout of {@code 0}
+ * never blocks, while {@link #send(Message)} waits indefinitely for a free slot.</p>
+ * <p>Each subscribed {@link MessageHandler} gets its own subscriber on the processor. An exception thrown by a
+ * handler is logged and does not cancel its subscription. Handlers subscribed with an {@link Executor} are offloaded
+ * to it, and {@link BatchMessageHandler}s can be subscribed to receive messages in batches.</p>
+ * <p>Once the channel has a {@link #setLagThreshold(int) lag threshold}, each handler subscribed afterwards runs on a
+ * thread of a pool the tracked handlers share, fed from a queue by its dispatcher, so that a stalled handler no longer
+ * holds up the other handlers and the senders. The lag of a handler, the number of messages dispatched to it but not
+ * handled yet, is tracked, and the channel's {@link SlowHandlerPolicy} applies once it crosses the threshold.</p>
+ *
+ * @author Jon Brisbin
+ * @author Stephane Maldini
+ */
+public abstract class AbstractReactorSubscribableChannel implements BeanNameAware,
+                                                                    MessageChannel,
+                                                                    SubscribableChannel {
+
+	protected final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final Map<MessageHandler, Cancellation>
+			messageHandlerConsumers =
+			new ConcurrentHashMap<>();
+
+	private final Map<MessageHandler, LagTrackingMessageHandler> lagTrackers = new ConcurrentHashMap<>();
+
+	private final Map<FluxProcessor<Message<?>, Message<?>>, RingBufferClaims> claims = new ConcurrentHashMap<>();
+
+	private final LongAdder rejectedSends = new LongAdder();
+
+	private String beanName;
+
+	private volatile int                              lagThreshold;
+	private volatile SlowHandlerPolicy                slowHandlerPolicy = SlowHandlerPolicy.EVICT;
+	private volatile int                              overflowBufferSize;
+	private volatile BiConsumer<MessageHandler, Long> evictionCallback;
+	private volatile Scheduler                        lagTrackingScheduler;
+
+	protected AbstractReactorSubscribableChannel() {
+		this.beanName = String.format("%s@%s", getClass().getSimpleName(), ObjectUtils.getIdentityHexString(this));
+	}
+
+	@Override
+	public void setBeanName(String beanName) {
+		this.beanName = beanName;
+	}
+
+	public String getBeanName() {
+		return beanName;
+	}
+
+	/**
+	 * Get the number of messages rejected because no slot of the {@code RingBuffer} became available within the send
+	 * timeout.
+	 *
+	 * @return the number of rejected sends
+	 */
+	public long getRejectedSendCount() {
+		return rejectedSends.sum();
+	}
+
+	/**
+	 * Set the lag, in messages dispatched to a handler but not handled yet, above which the {@link SlowHandlerPolicy}
+	 * applies to it. Handlers subscribed with {@link #subscribe(MessageHandler)} after the threshold is set are
+	 * decoupled from their dispatcher and have their lag tracked. The threshold should leave room for bursts, as a
+	 * handler lags, if only briefly, whenever messages are sent faster than it handles them.
+	 *
+	 * @param lagThreshold the lag threshold, or {@code 0} to dispatch to handlers directly
+	 */
+	public void setLagThreshold(int lagThreshold) {
+		Assert.isTrue(lagThreshold >= 0, "Lag threshold cannot be negative");
+		this.lagThreshold = lagThreshold;
+	}
+
+	/**
+	 * Set the policy applied to a handler whose lag crosses the lag threshold. Defaults to {@link
+	 * SlowHandlerPolicy#EVICT}.
+	 *
+	 * @param slowHandlerPolicy  the policy
+	 * @param overflowBufferSize the number of messages buffered beyond the lag threshold with {@link
+	 *                           SlowHandlerPolicy#BUFFER} before the handler is evicted
+	 */
+	public void setSlowHandlerPolicy(SlowHandlerPolicy slowHandlerPolicy, int overflowBufferSize) {
+		Assert.notNull(slowHandlerPolicy, "Slow handler policy cannot be null");
+		Assert.isTrue(overflowBufferSize >= 0, "Overflow buffer size cannot be negative");
+		this.slowHandlerPolicy = slowHandlerPolicy;
+		this.overflowBufferSize = overflowBufferSize;
+	}
+
+	/**
+	 * Set the callback notified with a handler and its lag when the handler is evicted for lagging too far behind.
+	 * The handler is unsubscribed by the time the callback runs.
+	 *
+	 * @param evictionCallback the callback
+	 */
+	public void setEvictionCallback(BiConsumer<MessageHandler, Long> evictionCallback) {
+		this.evictionCallback = evictionCallback;
+	}
+
+	/**
+	 * Get the lag of a handler, the number of messages dispatched to it but not handled yet.
+	 *
+	 * @param handler a handler subscribed while the channel had a lag threshold
+	 * @return the lag of the handler, or {@code 0} if it is not tracked
+	 */
+	public long getLag(MessageHandler handler) {
+		LagTrackingMessageHandler tracker = lagTrackers.get(handler);
+		return (null != tracker ? tracker.getLag() : 0);
+	}
+
+	/**
+	 * Get a snapshot of the lag of every handler whose lag is tracked.
+	 *
+	 * @return the lags, by handler
+	 */
+	public Map<MessageHandler, Long> getLags() {
+		Map<MessageHandler, Long> lags = new HashMap<>();
+		for (Map.Entry<MessageHandler, LagTrackingMessageHandler> entry : lagTrackers.entrySet()) {
+			lags.put(entry.getKey(), entry.getValue().getLag());
+		}
+		return Collections.unmodifiableMap(lags);
+	}
+
+	@Override
+	public boolean subscribe(MessageHandler handler) {
+		int threshold = lagThreshold;
+		if (threshold == 0) {
+			return subscribeTarget(handler, decorateHandler(handler));
+		}
+		long capacity = threshold + (slowHandlerPolicy == SlowHandlerPolicy.BUFFER ? overflowBufferSize : 0);
+		LagTrackingMessageHandler tracker = new LagTrackingMessageHandler(decorateHandler(handler),
+				getLagTrackingScheduler(), threshold, capacity, lag -> evict(handler, lag));
+		if (!subscribeTarget(handler, tracker)) {
+			return false;
+		}
+		lagTrackers.put(handler, tracker);
+		return true;
+	}
+
+	/**
+	 * Subscribe a {@link MessageHandler} whose messages are handled on the given {@link Executor} rather than on the
+	 * dispatching thread.
+	 *
+	 * @param handler  the handler to subscribe
+	 * @param executor the {@link Executor} to offload the handler to
+	 * @return {@code true} if the handler was subscribed, {@code false} if it already was
+	 */
+	public boolean subscribe(MessageHandler handler, Executor executor) {
+		return subscribeTarget(handler, new ExecutorMessageHandler(decorateHandler(handler), executor));
+	}
+
+	/**
+	 * Subscribe a {@link BatchMessageHandler} receiving lists of up to {@code batchSize} messages. Each batch holds the
+	 * messages accumulated since the previous one was handled; a partial batch is delivered as soon as the handler is
+	 * free, or after waiting {@code batchTimeout} milliseconds for more messages if that timeout is positive.
+	 *
+	 * @param handler      the handler to subscribe
+	 * @param batchSize    the maximum number of messages in a batch
+	 * @param batchTimeout the time in milliseconds a partial batch waits for more messages, or {@code 0} to deliver
+	 *                     it right away
+	 * @return {@code true} if the handler was subscribed, {@code false} if it already was
+	 */
+	public boolean subscribe(BatchMessageHandler handler, int batchSize, long batchTimeout) {
+		return subscribeTarget(handler, new BatchingMessageHandler(handler, batchSize, batchTimeout));
+	}
+
+	/**
+	 * Get a {@link Subscriber} sending every message it receives to this channel, so that a {@link
+	 * org.reactivestreams.Publisher} can feed it directly. Messages are sent without timeout and upstream demand is
+	 * only replenished as they are, so a full {@code RingBuffer} applies backpressure to the {@code Publisher}. A new
+	 * {@link Subscriber} is returned on each call, as each can only be subscribed once.
+	 *
+	 * @return a {@link Subscriber} sending to this channel
+	 */
+	public Subscriber<Message<?>> asSubscriber() {
+		return new MessageChannelSubscriber(this, QueueSupplier.SMALL_BUFFER_SIZE);
+	}
+
+	@Override
+	public boolean unsubscribe(MessageHandler handler) {
+		lagTrackers.remove(handler);
+		Cancellation control = messageHandlerConsumers.remove(handler);
+		if (null == control) {
+			return false;
+		}
+		control.dispose();
+		return true;
+	}
+
+	@Override
+	public boolean send(Message<?> message) {
+		return send(message, INDEFINITE_TIMEOUT);
+	}
+
+	/**
+	 * Send a message, waiting at most {@code timeout} milliseconds for a free slot in the {@code RingBuffer}.
+	 * <p>A slot is claimed before the message is published, atomically with respect to the other senders, so that a
+	 * send with a timeout never blocks once it has a slot, even when several threads send concurrently.</p>
+	 *
+	 * @param message the message to send
+	 * @param timeout the timeout in milliseconds, {@code 0} to never block or a negative value to wait indefinitely
+	 * @return {@code true} if the message was published, {@code false} if it was rejected
+	 */
+	@Override
+	public boolean send(Message<?> message, long timeout) {
+		RingBufferClaims claim = claimsOf(getProcessor(message));
+		if (!claim.claim(timeout)) {
+			incrementRejectedSends();
+			return false;
+		}
+		Message<?> published;
+		try {
+			published = beforePublish(message);
+		} catch (RuntimeException e) {
+			claim.release();
+			throw e;
+		}
+		claim.publish(published);
+		return true;
+	}
+
+	/**
+	 * Publish a message to one of the processors of this channel, bypassing {@link #send(Message, long)} but claiming
+	 * a free slot in its {@code RingBuffer} like it does, so as not to take a slot another sender has claimed.
+	 *
+	 * @param processor the processor
+	 * @param message   the message to publish
+	 * @param timeout   the timeout in milliseconds, {@code 0} to never block or a negative value to wait indefinitely
+	 * @return {@code true} if the message was published, {@code false} if no slot was free in time
+	 */
+	protected final boolean publish(FluxProcessor<Message<?>, Message<?>> processor, Message<?> message,
+	                                long timeout) {
+		RingBufferClaims claim = claimsOf(processor);
+		if (!claim.claim(timeout)) {
+			return false;
+		}
+		claim.publish(message);
+		return true;
+	}
+
+	/**
+	 * Prepare an accepted message for publication to the processor, once capacity has been secured for it.
+	 *
+	 * @param message the message being sent
+	 * @return the message to publish
+	 */
+	protected Message<?> beforePublish(Message<?> message) {
+		return message;
+	}
+
+	/**
+	 * Decorate a handler being subscribed, on the innermost level so that the decoration runs on the thread the
+	 * handler itself runs on, be it a dispatcher, an {@link Executor} or the thread of a lag-tracked handler. Batch
+	 * handlers are not decorated.
+	 *
+	 * @param handler the handler being subscribed
+	 * @return the handler to subscribe in its place
+	 */
+	protected MessageHandler decorateHandler(MessageHandler handler) {
+		return handler;
+	}
+
+	/**
+	 * Record a message rejected because the channel had no capacity left within the send timeout.
+	 */
+	protected void incrementRejectedSends() {
+		rejectedSends.increment();
+	}
+
+	/**
+	 * Subscribe the given handler so that it receives the messages sent to this channel.
+	 *
+	 * @param handler the handler, possibly wrapped to offload it to an {@link Executor}
+	 * @return the {@link Cancellation} used to unsubscribe the handler
+	 */
+	protected abstract Cancellation doSubscribe(MessageHandler handler);
+
+	/**
+	 * Get the processor the given message is published to.
+	 *
+	 * @param message the message being sent
+	 * @return the processor
+	 */
+	protected abstract FluxProcessor<Message<?>, Message<?>> getProcessor(Message<?> message);
+
+	/**
+	 * Subscribe the given handler to a processor with a subscriber of its own. Exceptions thrown by the handler are
+	 * logged and do not cancel the subscription.
+	 *
+	 * @param processor the processor to subscribe to
+	 * @param handler   the handler
+	 * @return the {@link Cancellation} used to unsubscribe the handler
+	 */
+	protected Cancellation subscribeHandler(FluxProcessor<Message<?>, Message<?>> processor, MessageHandler handler) {
+		MessageHandlerSubscriber subscriber = new MessageHandlerSubscriber(handler);
+		processor.subscribe(subscriber);
+		return subscriber;
+	}
+
+	/**
+	 * Get the number of free slots in a processor's {@code RingBuffer}.
+	 *
+	 * @param processor a {@link TopicProcessor} or a {@link WorkQueueProcessor}
+	 * @return the available capacity
+	 */
+	protected long getAvailableCapacity(FluxProcessor<Message<?>, Message<?>> processor) {
+		return RingBufferClaims.getAvailableCapacity(processor);
+	}
+
+	/**
+	 * Subscribe a target standing in for a handler, possibly wrapping it. The target is passed to {@link
+	 * #doSubscribe(MessageHandler)} and, if it is a {@link Cancellation}, disposed when the handler is unsubscribed.
+	 * The handler is registered before its target is subscribed, so that a handler subscribed twice is never passed to
+	 * {@link #doSubscribe(MessageHandler)} again.
+	 *
+	 * @param handler the handler, used to unsubscribe it
+	 * @param target  the handler or its wrapper
+	 * @return {@code true} if the handler was subscribed, {@code false} if it already was
+	 */
+	protected final boolean subscribeTarget(MessageHandler handler, MessageHandler target) {
+		Cancellation reservation = new PendingSubscription();
+		if (null != messageHandlerConsumers.putIfAbsent(handler, reservation)) {
+			if (target instanceof Cancellation) {
+				((Cancellation) target).dispose();
+			}
+			return false;
+		}
+		Cancellation subscription;
+		try {
+			subscription = doSubscribe(target);
+		} catch (RuntimeException e) {
+			messageHandlerConsumers.remove(handler, reservation);
+			throw e;
+		}
+		Cancellation c = subscription;
+		if (target instanceof Cancellation) {
+			c = () -> {
+				subscription.dispose();
+				((Cancellation) target).dispose();
+			};
+		}
+		if (!messageHandlerConsumers.replace(handler, reservation, c)) {
+			// unsubscribed while being subscribed
+			c.dispose();
+		}
+		return true;
+	}
+
+	/**
+	 * Get the scheduler lag-tracked handlers share, whose threads are cached and only added while every other one is
+	 * busy with a handler, so that a stalled handler never holds up the others.
+	 */
+	private Scheduler getLagTrackingScheduler() {
+		Scheduler scheduler = lagTrackingScheduler;
+		if (null == scheduler) {
+			synchronized (this) {
+				scheduler = lagTrackingScheduler;
+				if (null == scheduler) {
+					scheduler = Schedulers.newElastic(beanName + "-handler", 60, true);
+					lagTrackingScheduler = scheduler;
+				}
+			}
+		}
+		return scheduler;
+	}
+
+	/**
+	 * Shut down the threads lag-tracked handlers run on, once the channel is destroyed.
+	 */
+	protected final void shutdownLagTracking() {
+		synchronized (this) {
+			if (null != lagTrackingScheduler) {
+				lagTrackingScheduler.shutdown();
+			}
+		}
+	}
+
+	private void evict(MessageHandler handler, long lag) {
+		if (!unsubscribe(handler)) {
+			return;
+		}
+		log.warn("Evicted " + handler + " from " + beanName + ", lagging " + lag + " messages behind");
+		BiConsumer<MessageHandler, Long> callback = evictionCallback;
+		if (null != callback) {
+			try {
+				callback.accept(handler, lag);
+			} catch (Throwable t) {
+				Exceptions.throwIfFatal(t);
+				log.error("", t);
+			}
+		}
+	}
+
+	private RingBufferClaims claimsOf(FluxProcessor<Message<?>, Message<?>> processor) {
+		RingBufferClaims processorClaims = claims.get(processor);
+		if (null == processorClaims) {
+			processorClaims = claims.computeIfAbsent(processor, RingBufferClaims::new);
+		}
+		return processorClaims;
+	}
+
+	/**
+	 * Registration of a handler whose target is being subscribed.
+	 */
+	private static final class PendingSubscription implements Cancellation {
+		@Override
+		public void dispose() {
+		}
+	}
+
+	private final class MessageHandlerSubscriber implements Subscriber<Message<?>>, Cancellation {
+		private final MessageHandler handler;
+
+		private volatile Subscription subscription;
+		private volatile boolean      cancelled;
+
+		MessageHandlerSubscriber(MessageHandler handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			subscription = s;
+			if (cancelled) {
+				s.cancel();
+			} else {
+				s.request(Long.MAX_VALUE);
+			}
+		}
+
+		@Override
+		public void onNext(Message<?> message) {
+			try {
+				handler.handleMessage(message);
+			} catch (Throwable t) {
+				Exceptions.throwIfFatal(t);
+				log.error("Failed to handle " + message + " with " + handler, t);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			log.error("", t);
+		}
+
+		@Override
+		public void onComplete() {
+			log.trace(handler + " has been completed");
+		}
+
+		@Override
+		public void dispose() {
+			cancelled = true;
+			Subscription s = subscription;
+			if (null != s) {
+				s.cancel();
+			}
+		}
+	}
+
+}
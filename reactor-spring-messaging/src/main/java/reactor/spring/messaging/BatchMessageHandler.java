@@ -0,0 +1,34 @@
+package reactor.spring.messaging;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Contract for handling messages in batches, for instance to write them to a database or a broker in bulk.
+ * <p>Subscribed with {@link AbstractReactorSubscribableChannel#subscribe(BatchMessageHandler, int, long)}, a handler
+ * is given whatever messages the channel has accumulated since its previous batch, so batches grow under load while
+ * an idle channel delivers messages without delay. When subscribed as a plain {@link MessageHandler}, each message is
+ * delivered as a batch of one.</p>
+ *
+ * @author Stephane Maldini
+ */
+public interface BatchMessageHandler extends MessageHandler {
+
+	/**
+	 * Handle a batch of messages, in the order they were sent.
+	 *
+	 * @param messages the messages to handle, never empty
+	 * @throws MessagingException if the messages could not be handled
+	 */
+	void handleMessages(List<Message<?>> messages) throws MessagingException;
+
+	@Override
+	default void handleMessage(Message<?> message) throws MessagingException {
+		handleMessages(Collections.singletonList(message));
+	}
+
+}
@@ -0,0 +1,120 @@
+package reactor.spring.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Cancellation;
+import reactor.core.Exceptions;
+import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.TimedScheduler;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.util.Assert;
+
+/**
+ * Accumulates the messages handed over by a channel's dispatcher in a bounded queue and delivers them to a {@link
+ * BatchMessageHandler} from a dedicated thread.
+ * <p>A batch holds up to {@code batchSize} messages. Whenever the batch thread is free, it takes everything queued so
+ * far; a partial batch is delivered right away, or, with a positive {@code batchTimeout}, once its first message has
+ * waited that long. The dispatcher blocks while the queue is full, which pushes back on the {@code RingBuffer}.</p>
+ *
+ * @author Stephane Maldini
+ */
+final class BatchingMessageHandler implements MessageHandler, Cancellation {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final BatchMessageHandler       delegate;
+	private final int                       batchSize;
+	private final long                      batchTimeout;
+	private final BlockingQueue<Message<?>> queue;
+	private final TimedScheduler            timer;
+	private final AtomicInteger             wip   = new AtomicInteger();
+	private final Runnable                  drain = this::drain;
+
+	// only accessed from the timer thread
+	private List<Message<?>> batch;
+	private long             batchDeadline;
+
+	BatchingMessageHandler(BatchMessageHandler delegate, int batchSize, long batchTimeout) {
+		Assert.notNull(delegate, "BatchMessageHandler cannot be null");
+		Assert.isTrue(batchSize > 0, "Batch size must be positive");
+		Assert.isTrue(batchTimeout >= 0, "Batch timeout cannot be negative");
+		this.delegate = delegate;
+		this.batchSize = batchSize;
+		this.batchTimeout = TimeUnit.MILLISECONDS.toNanos(batchTimeout);
+		this.queue = new ArrayBlockingQueue<>(batchSize);
+		this.timer = Schedulers.newTimer("batchMessageHandler");
+		this.batch = new ArrayList<>(batchSize);
+	}
+
+	@Override
+	public void handleMessage(Message<?> message) throws MessagingException {
+		try {
+			queue.put(message);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new MessagingException(message, "Interrupted while waiting to batch message", e);
+		}
+		scheduleDrain();
+	}
+
+	@Override
+	public void dispose() {
+		timer.shutdown();
+	}
+
+	private void scheduleDrain() {
+		if (wip.getAndIncrement() == 0) {
+			timer.schedule(drain);
+		}
+	}
+
+	private void drain() {
+		int missed = 1;
+		for (;;) {
+			for (;;) {
+				queue.drainTo(batch, batchSize - batch.size());
+				if (batch.isEmpty()) {
+					break;
+				}
+				if (batch.size() < batchSize && batchTimeout > 0) {
+					long now = System.nanoTime();
+					if (batchDeadline == 0) {
+						batchDeadline = now + batchTimeout;
+						timer.schedule(this::scheduleDrain, batchTimeout, TimeUnit.NANOSECONDS);
+					}
+					if (now - batchDeadline < 0) {
+						break;
+					}
+				}
+				deliver();
+			}
+			missed = wip.addAndGet(-missed);
+			if (missed == 0) {
+				return;
+			}
+		}
+	}
+
+	private void deliver() {
+		List<Message<?>> messages = batch;
+		batch = new ArrayList<>(batchSize);
+		batchDeadline = 0;
+		try {
+			delegate.handleMessages(messages);
+		} catch (Throwable t) {
+			Exceptions.throwIfFatal(t);
+			log.error("Failed to handle batch of " + messages.size() + " messages with " + delegate, t);
+		}
+	}
+
+}
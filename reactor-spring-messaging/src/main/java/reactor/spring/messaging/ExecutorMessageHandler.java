@@ -0,0 +1,48 @@
+package reactor.spring.messaging;
+
+import java.util.concurrent.Executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+
+/**
+ * {@link MessageHandler} offloading the handling of each message to an {@link Executor}, so that a slow handler does
+ * not hold up the dispatching thread. Messages are only handled in order if the {@link Executor} runs its tasks
+ * serially.
+ *
+ * @author Stephane Maldini
+ */
+final class ExecutorMessageHandler implements MessageHandler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ExecutorMessageHandler.class);
+
+	private final MessageHandler delegate;
+	private final Executor       executor;
+
+	ExecutorMessageHandler(MessageHandler delegate, Executor executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public void handleMessage(final Message<?> message) {
+		executor.execute(() -> {
+			try {
+				delegate.handleMessage(message);
+			} catch (Throwable t) {
+				Exceptions.throwIfFatal(t);
+				LOG.error("Failed to handle " + message + " with " + delegate, t);
+			}
+		});
+	}
+
+	@Override
+	public String toString() {
+		return "ExecutorMessageHandler[" + delegate + "]";
+	}
+
+}
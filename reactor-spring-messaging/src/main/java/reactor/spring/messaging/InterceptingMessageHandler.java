@@ -0,0 +1,94 @@
+package reactor.spring.messaging;
+
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+/**
+ * {@link MessageHandler} applying the {@link ExecutorChannelInterceptor}s of a channel around a handler, on the thread
+ * handling the message. The interceptors are read from the channel on every message, so that changes apply to
+ * handlers already subscribed, and the handler is called directly when there are none.
+ * <p>Like in Spring's {@code ExecutorSubscribableChannel}, an interceptor returning {@code null} from {@code
+ * beforeHandle} stops the message, and {@code afterMessageHandled} is called in reverse order on every interceptor
+ * whose {@code beforeHandle} completed, whether the handler succeeded or not.</p>
+ *
+ * @author Stephane Maldini
+ */
+final class InterceptingMessageHandler implements MessageHandler {
+
+	private static final Logger LOG = LoggerFactory.getLogger(InterceptingMessageHandler.class);
+
+	private final MessageHandler                         delegate;
+	private final MessageChannel                         channel;
+	private final Supplier<ExecutorChannelInterceptor[]> interceptors;
+
+	/**
+	 * @param delegate     the handler
+	 * @param channel      the channel the handler is subscribed to, passed to the interceptors
+	 * @param interceptors supplies the current interceptors of the channel
+	 */
+	InterceptingMessageHandler(MessageHandler delegate, MessageChannel channel,
+	                           Supplier<ExecutorChannelInterceptor[]> interceptors) {
+		this.delegate = delegate;
+		this.channel = channel;
+		this.interceptors = interceptors;
+	}
+
+	@Override
+	public void handleMessage(Message<?> message) throws MessagingException {
+		ExecutorChannelInterceptor[] chain = interceptors.get();
+		if (chain.length == 0) {
+			delegate.handleMessage(message);
+			return;
+		}
+		Message<?> current = message;
+		int applied = 0;
+		try {
+			for (; applied < chain.length; applied++) {
+				Message<?> intercepted = chain[applied].beforeHandle(current, channel, delegate);
+				if (null == intercepted) {
+					afterMessageHandled(chain, applied, current, null);
+					return;
+				}
+				current = intercepted;
+			}
+			delegate.handleMessage(current);
+			afterMessageHandled(chain, applied, current, null);
+		} catch (Exception e) {
+			afterMessageHandled(chain, applied, current, e);
+			if (e instanceof MessagingException) {
+				throw (MessagingException) e;
+			}
+			throw new MessageDeliveryException(current, "Failed to handle message with " + delegate, e);
+		} catch (Error e) {
+			afterMessageHandled(chain, applied, current,
+					new MessageDeliveryException(current, "Failed to handle message with " + delegate, e));
+			throw e;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+	private void afterMessageHandled(ExecutorChannelInterceptor[] chain, int applied, Message<?> message,
+	                                 Exception ex) {
+		for (int i = applied - 1; i >= 0; i--) {
+			try {
+				chain[i].afterMessageHandled(message, channel, delegate, ex);
+			} catch (Throwable t) {
+				LOG.error("Exception from afterMessageHandled in " + chain[i], t);
+			}
+		}
+	}
+
+}
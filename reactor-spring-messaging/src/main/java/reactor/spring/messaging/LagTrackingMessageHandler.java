@@ -0,0 +1,111 @@
+package reactor.spring.messaging;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Cancellation;
+import reactor.core.Exceptions;
+import reactor.core.scheduler.Scheduler;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+
+/**
+ * {@link MessageHandler} decoupling a handler from the thread dispatching to it, so that a stalled handler never holds
+ * up its dispatcher, and through it the {@code RingBuffer} every producer and handler of the channel share. Messages
+ * are queued and handled one at a time, in order, on a {@link Scheduler} shared with other handlers, and the number
+ * queued but not handled yet is the lag of the handler. A handler lagging by the capacity of its queue is evicted.
+ *
+ * @author Stephane Maldini
+ */
+final class LagTrackingMessageHandler implements MessageHandler, Cancellation {
+
+	private static final Logger LOG = LoggerFactory.getLogger(LagTrackingMessageHandler.class);
+
+	private final Queue<Message<?>> queue     = new ConcurrentLinkedQueue<>();
+	private final AtomicLong        lag       = new AtomicLong();
+	private final Runnable          drainTask = this::drain;
+	private final MessageHandler    delegate;
+	private final Scheduler         scheduler;
+	private final long              threshold;
+	private final long              capacity;
+	private final LongConsumer      evictor;
+
+	private volatile boolean disposed;
+
+	private volatile boolean lagging;
+
+	/**
+	 * @param delegate  the handler
+	 * @param scheduler the scheduler the handler runs on, which is not shut down with the handler
+	 * @param threshold the lag above which the handler is lagging
+	 * @param capacity  the lag at which the handler is evicted, including any overflow buffer
+	 * @param evictor   called with the lag of the handler when it has to be evicted
+	 */
+	LagTrackingMessageHandler(MessageHandler delegate, Scheduler scheduler, long threshold, long capacity,
+	                          LongConsumer evictor) {
+		this.delegate = delegate;
+		this.scheduler = scheduler;
+		this.threshold = threshold;
+		this.capacity = capacity;
+		this.evictor = evictor;
+	}
+
+	long getLag() {
+		return lag.get();
+	}
+
+	@Override
+	public void handleMessage(Message<?> message) {
+		if (disposed) {
+			return;
+		}
+		long current = lag.get();
+		if (current >= capacity) {
+			evictor.accept(current);
+			return;
+		}
+		if (current < threshold) {
+			lagging = false;
+		} else if (!lagging) {
+			lagging = true;
+			LOG.warn(delegate + " lags " + current + " messages behind, buffering up to " + (capacity - current) +
+					" more");
+		}
+		queue.offer(message);
+		if (lag.getAndIncrement() == 0) {
+			scheduler.schedule(drainTask);
+		}
+	}
+
+	@Override
+	public void dispose() {
+		disposed = true;
+		queue.clear();
+	}
+
+	private void drain() {
+		Message<?> message;
+		do {
+			if (disposed || null == (message = queue.poll())) {
+				return;
+			}
+			try {
+				delegate.handleMessage(message);
+			} catch (Throwable t) {
+				Exceptions.throwIfFatal(t);
+				LOG.error("Failed to handle " + message + " with " + delegate, t);
+			}
+		} while (lag.decrementAndGet() != 0);
+	}
+
+	@Override
+	public String toString() {
+		return "LagTrackingMessageHandler[" + delegate + "]";
+	}
+
+}
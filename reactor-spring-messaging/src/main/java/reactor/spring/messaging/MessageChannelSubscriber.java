@@ -0,0 +1,76 @@
+package reactor.spring.messaging;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+
+/**
+ * {@link Subscriber} sending every message it receives to a {@link MessageChannel}. Demand is requested in batches of
+ * a prefetch size and replenished as messages are sent, so that a channel blocking its senders also holds back the
+ * upstream {@link org.reactivestreams.Publisher}.
+ *
+ * @author Stephane Maldini
+ */
+final class MessageChannelSubscriber implements Subscriber<Message<?>> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(MessageChannelSubscriber.class);
+
+	private final MessageChannel channel;
+	private final int            prefetch;
+	private final int            limit;
+
+	private Subscription subscription;
+	private int          produced;
+
+	MessageChannelSubscriber(MessageChannel channel, int prefetch) {
+		this.channel = channel;
+		this.prefetch = prefetch;
+		this.limit = Math.max(1, prefetch - (prefetch >> 2));
+	}
+
+	@Override
+	public void onSubscribe(Subscription s) {
+		if (null != subscription) {
+			s.cancel();
+			return;
+		}
+		subscription = s;
+		s.request(prefetch);
+	}
+
+	@Override
+	public void onNext(Message<?> message) {
+		try {
+			if (!channel.send(message)) {
+				LOG.error("Message " + message + " was rejected by " + channel);
+			}
+		} catch (Throwable t) {
+			Exceptions.throwIfFatal(t);
+			LOG.error("Failed to send " + message + " to " + channel, t);
+		}
+		if (++produced == limit) {
+			produced = 0;
+			subscription.request(limit);
+		}
+	}
+
+	@Override
+	public void onError(Throwable t) {
+		LOG.error("", t);
+	}
+
+	@Override
+	public void onComplete() {
+	}
+
+	@Override
+	public String toString() {
+		return "MessageChannelSubscriber[" + channel + "]";
+	}
+
+}
@@ -0,0 +1,119 @@
+package reactor.spring.messaging;
+
+import java.util.Arrays;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+
+/**
+ * Fans each received message out to a copy-on-write array of {@link MessageHandler}s, so that a single consumer
+ * thread, or a small pool of them, can serve any number of handlers.
+ *
+ * @author Stephane Maldini
+ */
+final class MessageHandlerMultiplexer {
+
+	private static final MessageHandler[] NO_HANDLERS = new MessageHandler[0];
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final Object monitor = new Object();
+
+	private volatile MessageHandler[] handlers = NO_HANDLERS;
+
+	/**
+	 * Add a handler to the fan-out.
+	 *
+	 * @param handler the handler to add
+	 * @return {@code true} if the handler was added, {@code false} if it was already present
+	 */
+	boolean add(MessageHandler handler) {
+		synchronized (monitor) {
+			MessageHandler[] current = handlers;
+			for (MessageHandler h : current) {
+				if (h == handler) {
+					return false;
+				}
+			}
+			MessageHandler[] updated = Arrays.copyOf(current, current.length + 1);
+			updated[current.length] = handler;
+			handlers = updated;
+			return true;
+		}
+	}
+
+	/**
+	 * Remove a handler from the fan-out.
+	 *
+	 * @param handler the handler to remove
+	 * @return {@code true} if the handler was removed, {@code false} if it was not present
+	 */
+	boolean remove(MessageHandler handler) {
+		synchronized (monitor) {
+			MessageHandler[] current = handlers;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i] == handler) {
+					MessageHandler[] updated = new MessageHandler[current.length - 1];
+					System.arraycopy(current, 0, updated, 0, i);
+					System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+					handlers = (updated.length > 0 ? updated : NO_HANDLERS);
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Hand the message to every registered handler, in registration order. A failing handler does not prevent the
+	 * others from receiving the message.
+	 *
+	 * @param message the message to dispatch
+	 */
+	void dispatch(Message<?> message) {
+		for (MessageHandler handler : handlers) {
+			try {
+				handler.handleMessage(message);
+			} catch (Throwable t) {
+				Exceptions.throwIfFatal(t);
+				log.error("Failed to handle " + message + " with " + handler, t);
+			}
+		}
+	}
+
+	/**
+	 * Create a new {@link Subscriber} dispatching every message it receives to the registered handlers.
+	 *
+	 * @return a new dispatching {@link Subscriber}
+	 */
+	Subscriber<Message<?>> newDispatcher() {
+		return new Subscriber<Message<?>>() {
+			@Override
+			public void onSubscribe(Subscription s) {
+				s.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(Message<?> message) {
+				dispatch(message);
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				log.error("", t);
+			}
+
+			@Override
+			public void onComplete() {
+				log.trace("Message dispatcher has shutdown");
+			}
+		};
+	}
+
+}
@@ -0,0 +1,146 @@
+package reactor.spring.messaging;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+
+/**
+ * Preallocated, mutable {@link Message} claimed from a {@link ReactorSlotChannel}, filled in place and published
+ * without allocating a new message or header map.
+ * <p>A slot holds a payload and a small fixed number of headers. Handlers see it through a flyweight {@link
+ * MessageHeaders} view that carries no generated id or timestamp. A slot is reused as soon as every handler has
+ * returned, so handlers must not keep a reference to it; {@link #toMessage()} creates an immutable copy when one is
+ * needed.</p>
+ *
+ * @author Stephane Maldini
+ */
+public final class MessageSlot implements Message<Object> {
+
+	static final int FREE      = 0;
+	static final int CLAIMED   = 1;
+	static final int PUBLISHED = 2;
+
+	final AtomicInteger state = new AtomicInteger(FREE);
+
+	private final Object             owner;
+	private final String[]           headerNames;
+	private final Object[]           headerValues;
+	private final SlotMessageHeaders headers;
+
+	private Object payload;
+	private int    headerCount;
+
+	// off-heap region of the slot and its read-only view, when used by a ReactorByteBufferChannel
+	ByteBuffer region;
+	ByteBuffer view;
+
+	MessageSlot(Object owner, int maxHeaders) {
+		this.owner = owner;
+		this.headerNames = new String[maxHeaders];
+		this.headerValues = new Object[maxHeaders];
+		this.headers = new SlotMessageHeaders(this);
+	}
+
+	/**
+	 * Set the payload of this slot.
+	 *
+	 * @param payload the payload, which cannot be {@code null}
+	 * @return this slot
+	 */
+	public MessageSlot setPayload(Object payload) {
+		Assert.notNull(payload, "Payload cannot be null");
+		this.payload = payload;
+		return this;
+	}
+
+	/**
+	 * Set a header of this slot, replacing any previous value of a header with the same name.
+	 *
+	 * @param name  the header name
+	 * @param value the header value
+	 * @return this slot
+	 * @throws IllegalStateException if the slot already holds as many headers as it can
+	 */
+	public MessageSlot setHeader(String name, Object value) {
+		Assert.notNull(name, "Header name cannot be null");
+		int index = indexOf(name);
+		if (index < 0) {
+			Assert.state(headerCount < headerNames.length, "A message slot holds at most " + headerNames.length +
+					" headers");
+			index = headerCount++;
+			headerNames[index] = name;
+		}
+		headerValues[index] = value;
+		return this;
+	}
+
+	@Override
+	public Object getPayload() {
+		return payload;
+	}
+
+	@Override
+	public MessageHeaders getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Create an immutable copy of this slot that can outlive the current dispatch.
+	 *
+	 * @return a new {@link Message} with the payload and headers of this slot
+	 */
+	public Message<Object> toMessage() {
+		return new GenericMessage<>(payload, headerMap());
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [payload=" + payload + ", headers=" + headerMap() + "]";
+	}
+
+	boolean isOwnedBy(Object channel) {
+		return owner == channel;
+	}
+
+	void reset() {
+		payload = null;
+		for (int i = 0; i < headerCount; i++) {
+			headerNames[i] = null;
+			headerValues[i] = null;
+		}
+		headerCount = 0;
+	}
+
+	int headerCount() {
+		return headerCount;
+	}
+
+	Object headerValue(Object name) {
+		int index = indexOf(name);
+		return (index >= 0 ? headerValues[index] : null);
+	}
+
+	int indexOf(Object name) {
+		for (int i = 0; i < headerCount; i++) {
+			if (headerNames[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	Map<String, Object> headerMap() {
+		Map<String, Object> map = new LinkedHashMap<>(headerCount * 2);
+		for (int i = 0; i < headerCount; i++) {
+			map.put(headerNames[i], headerValues[i]);
+		}
+		return map;
+	}
+
+}
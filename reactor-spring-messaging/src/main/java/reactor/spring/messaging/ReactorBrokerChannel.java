@@ -0,0 +1,255 @@
+package reactor.spring.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.TopicProcessor;
+import reactor.core.publisher.WorkQueueProcessor;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.util.Assert;
+
+/**
+ * {@link AbstractSubscribableChannel} publishing messages to RingBuffer-based Reactor processors, to stand in for the
+ * {@code ExecutorSubscribableChannel}s of Spring's {@code AbstractMessageBrokerConfiguration}. Each message is
+ * dispatched to every subscribed handler by the dispatcher thread that takes it, and {@link
+ * ExecutorChannelInterceptor}s are applied on that thread, as they would be on the executor's.
+ * <p>The channel dispatches in one of three ways, picked by its constructor:</p>
+ * <ul>
+ * <li>from a single thread, so that all messages are handled in order, for instance for the {@code
+ * brokerChannel};</li>
+ * <li>point-to-point across a number of dispatcher threads, each message being taken by one of them from a {@link
+ * WorkQueueProcessor}, for throughput when ordering does not matter, for instance for the {@code
+ * clientInboundChannel};</li>
+ * <li>partitioned by a header across a number of dispatcher threads, so that messages sharing a key are handled in
+ * order, for instance by {@link org.springframework.messaging.simp.SimpMessageHeaderAccessor#SESSION_ID_HEADER
+ * session id} for the {@code clientOutboundChannel}, which must preserve the order of each session's messages.</li>
+ * </ul>
+ * <p>The channels replace the broker configuration's by overriding its bean methods, for example:</p>
+ * <pre class="code">
+ * &#064;Bean
+ * &#064;Override
+ * public AbstractSubscribableChannel clientOutboundChannel() {
+ *     ReactorBrokerChannel channel = new ReactorBrokerChannel(4, SimpMessageHeaderAccessor.SESSION_ID_HEADER);
+ *     channel.setInterceptors(outboundInterceptors());
+ *     return channel;
+ * }
+ * </pre>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorBrokerChannel extends AbstractSubscribableChannel implements DisposableBean {
+
+	private static final ExecutorChannelInterceptor[] NO_INTERCEPTORS = new ExecutorChannelInterceptor[0];
+
+	private final FluxProcessor<Message<?>, Message<?>>[] processors;
+	private final RingBufferClaims[]                      claims;
+	private final Function<Message<?>, Object>            partitionKeyExtractor;
+	private final MessageHandlerMultiplexer               multiplexer   = new MessageHandlerMultiplexer();
+	private final Map<MessageHandler, MessageHandler>     targets       = new ConcurrentHashMap<>();
+	private final LongAdder                               rejectedSends = new LongAdder();
+
+	private volatile ExecutorChannelInterceptor[] executorInterceptors = NO_INTERCEPTORS;
+
+	/**
+	 * Create a {@literal ReactorBrokerChannel} handling all messages in order from a single dispatcher thread.
+	 */
+	public ReactorBrokerChannel() {
+		this(1);
+	}
+
+	/**
+	 * Create a {@literal ReactorBrokerChannel} dispatching point-to-point across the given number of threads. With
+	 * more than one dispatcher thread, messages are handled concurrently and out of order.
+	 *
+	 * @param dispatchers the number of dispatcher threads
+	 */
+	public ReactorBrokerChannel(int dispatchers) {
+		this(dispatchers, QueueSupplier.SMALL_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a {@literal ReactorBrokerChannel} dispatching point-to-point across the given number of threads.
+	 *
+	 * @param dispatchers the number of dispatcher threads
+	 * @param backlog     the size of the {@code RingBuffer}
+	 */
+	@SuppressWarnings("unchecked")
+	public ReactorBrokerChannel(int dispatchers, int backlog) {
+		Assert.isTrue(dispatchers > 0, "At least one dispatcher is required");
+		this.partitionKeyExtractor = null;
+		this.processors = new FluxProcessor[1];
+		this.processors[0] = (dispatchers > 1 ?
+				WorkQueueProcessor.share(getBeanName(), backlog, false) :
+				TopicProcessor.share(getBeanName(), backlog));
+		for (int i = 0; i < dispatchers; i++) {
+			this.processors[0].subscribe(multiplexer.newDispatcher());
+		}
+		this.claims = claimsOf(processors);
+	}
+
+	/**
+	 * Create a {@literal ReactorBrokerChannel} partitioning messages by the value of the given header, so that
+	 * messages with the same value are handled in order.
+	 *
+	 * @param partitions   the number of partitions, and so of dispatcher threads
+	 * @param partitionKey the name of the header holding the partition key
+	 */
+	public ReactorBrokerChannel(int partitions, String partitionKey) {
+		this(partitions, QueueSupplier.SMALL_BUFFER_SIZE, headerKeyExtractor(partitionKey));
+	}
+
+	/**
+	 * Create a {@literal ReactorBrokerChannel} partitioning messages by the key extracted by the given {@link
+	 * Function}. Messages without a key go to the first partition.
+	 *
+	 * @param partitions            the number of partitions, and so of dispatcher threads
+	 * @param backlog               the size of each partition's {@code RingBuffer}
+	 * @param partitionKeyExtractor the {@link Function} extracting the partition key of a message
+	 */
+	@SuppressWarnings("unchecked")
+	public ReactorBrokerChannel(int partitions, int backlog, Function<Message<?>, Object> partitionKeyExtractor) {
+		Assert.isTrue(partitions > 0, "At least one partition is required");
+		Assert.notNull(partitionKeyExtractor, "Partition key extractor cannot be null");
+		this.partitionKeyExtractor = partitionKeyExtractor;
+		this.processors = new FluxProcessor[partitions];
+		for (int i = 0; i < partitions; i++) {
+			this.processors[i] = TopicProcessor.share(getBeanName() + "-" + i, backlog);
+			this.processors[i].subscribe(multiplexer.newDispatcher());
+		}
+		this.claims = claimsOf(processors);
+	}
+
+	/**
+	 * Get the number of messages rejected because no slot of the {@code RingBuffer} became available within the send
+	 * timeout.
+	 *
+	 * @return the number of rejected sends
+	 */
+	public long getRejectedSendCount() {
+		return rejectedSends.sum();
+	}
+
+	@Override
+	public boolean subscribe(MessageHandler handler) {
+		if (!super.subscribe(handler)) {
+			return false;
+		}
+		MessageHandler target = new InterceptingMessageHandler(handler, this, () -> executorInterceptors);
+		targets.put(handler, target);
+		multiplexer.add(target);
+		return true;
+	}
+
+	@Override
+	public boolean unsubscribe(MessageHandler handler) {
+		if (!super.unsubscribe(handler)) {
+			return false;
+		}
+		MessageHandler target = targets.remove(handler);
+		if (null != target) {
+			multiplexer.remove(target);
+		}
+		return true;
+	}
+
+	@Override
+	public void setInterceptors(List<ChannelInterceptor> interceptors) {
+		super.setInterceptors(interceptors);
+		updateExecutorInterceptors();
+	}
+
+	@Override
+	public void addInterceptor(ChannelInterceptor interceptor) {
+		super.addInterceptor(interceptor);
+		updateExecutorInterceptors();
+	}
+
+	@Override
+	public void addInterceptor(int index, ChannelInterceptor interceptor) {
+		super.addInterceptor(index, interceptor);
+		updateExecutorInterceptors();
+	}
+
+	@Override
+	public boolean removeInterceptor(ChannelInterceptor interceptor) {
+		boolean removed = super.removeInterceptor(interceptor);
+		updateExecutorInterceptors();
+		return removed;
+	}
+
+	@Override
+	public ChannelInterceptor removeInterceptor(int index) {
+		ChannelInterceptor removed = super.removeInterceptor(index);
+		updateExecutorInterceptors();
+		return removed;
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		for (FluxProcessor<Message<?>, Message<?>> processor : processors) {
+			processor.onComplete();
+		}
+	}
+
+	/**
+	 * Publish a message, waiting at most {@code timeout} milliseconds for a free slot in the {@code RingBuffer}.
+	 *
+	 * @param message the message to send
+	 * @param timeout the timeout in milliseconds, {@code 0} to never block or a negative value to wait indefinitely
+	 * @return {@code true} if the message was published, {@code false} if it was rejected
+	 */
+	@Override
+	protected boolean sendInternal(Message<?> message, long timeout) {
+		RingBufferClaims claim = claims[partitionOf(message)];
+		if (!claim.claim(timeout)) {
+			rejectedSends.increment();
+			return false;
+		}
+		claim.publish(message);
+		return true;
+	}
+
+	private void updateExecutorInterceptors() {
+		List<ExecutorChannelInterceptor> interceptors = new ArrayList<>();
+		for (ChannelInterceptor interceptor : getInterceptors()) {
+			if (interceptor instanceof ExecutorChannelInterceptor) {
+				interceptors.add((ExecutorChannelInterceptor) interceptor);
+			}
+		}
+		executorInterceptors = interceptors.toArray(NO_INTERCEPTORS);
+	}
+
+	private int partitionOf(Message<?> message) {
+		if (processors.length == 1) {
+			return 0;
+		}
+		Object key = partitionKeyExtractor.apply(message);
+		return (null != key ? (key.hashCode() & Integer.MAX_VALUE) % processors.length : 0);
+	}
+
+	private static RingBufferClaims[] claimsOf(FluxProcessor<Message<?>, Message<?>>[] processors) {
+		RingBufferClaims[] claims = new RingBufferClaims[processors.length];
+		for (int i = 0; i < processors.length; i++) {
+			claims[i] = new RingBufferClaims(processors[i]);
+		}
+		return claims;
+	}
+
+	private static Function<Message<?>, Object> headerKeyExtractor(final String header) {
+		Assert.hasText(header, "Partition key header cannot be empty");
+		return message -> message.getHeaders().get(header);
+	}
+
+}
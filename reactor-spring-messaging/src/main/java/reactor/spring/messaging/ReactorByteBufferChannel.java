@@ -0,0 +1,160 @@
+package reactor.spring.messaging;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import reactor.core.Cancellation;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ReactorSlotChannel} for binary messages, copying {@code byte[]} and {@link ByteBuffer} payloads into a
+ * preallocated off-heap region so that no heap buffer waits in the {@code RingBuffer}.
+ * <p>Each slot owns a fixed-size region of a single direct {@link ByteBuffer}. Handlers receive a read-only {@link
+ * ByteBuffer} over the region, rewound for each of them, which is reused as soon as every handler has returned.
+ * Handlers subscribed with an {@link java.util.concurrent.Executor} or as a {@link BatchMessageHandler} receive a heap
+ * copy of the payload instead. The {@link MessageHeaders#ID} and {@link MessageHeaders#TIMESTAMP} headers of sent
+ * messages are not carried over.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorByteBufferChannel extends ReactorSlotChannel {
+
+	/**
+	 * Default maximum size in bytes of a payload.
+	 */
+	public static final int DEFAULT_MAX_PAYLOAD_SIZE = 1024;
+
+	private final int maxHeaders;
+	private final int maxPayloadSize;
+
+	/**
+	 * Create a multi-threaded producer channel with default settings.
+	 */
+	public ReactorByteBufferChannel() {
+		this(false, QueueSupplier.SMALL_BUFFER_SIZE, DEFAULT_MAX_HEADERS, DEFAULT_MAX_PAYLOAD_SIZE);
+	}
+
+	/**
+	 * Create a {@literal ReactorByteBufferChannel}, allocating {@code backlog * maxPayloadSize} bytes off-heap.
+	 *
+	 * @param singleThreadedProducer whether to create a single-threaded producer or not
+	 * @param backlog                the number of slots, and the size of the {@code RingBuffer}, as a power of 2
+	 * @param maxHeaders             the number of headers a message can carry
+	 * @param maxPayloadSize         the maximum size in bytes of a payload
+	 */
+	public ReactorByteBufferChannel(boolean singleThreadedProducer, int backlog, int maxHeaders, int maxPayloadSize) {
+		super(singleThreadedProducer, backlog, maxHeaders);
+		Assert.isTrue(maxPayloadSize > 0, "Maximum payload size must be positive");
+		this.maxHeaders = maxHeaders;
+		this.maxPayloadSize = maxPayloadSize;
+
+		long size = (long) backlog * maxPayloadSize;
+		Assert.isTrue(size <= Integer.MAX_VALUE, "Backlog of " + backlog + " slots of " + maxPayloadSize +
+				" bytes exceeds the maximum buffer size of " + Integer.MAX_VALUE + " bytes");
+		ByteBuffer memory = ByteBuffer.allocateDirect((int) size);
+		MessageSlot[] slots = slots();
+		int offset = 0;
+		for (int i = 0; i < slots.length; i++, offset += maxPayloadSize) {
+			// every slot ends within the buffer, so its end offset cannot overflow
+			memory.limit(offset + maxPayloadSize).position(offset);
+			slots[i].region = memory.slice();
+			slots[i].view = slots[i].region.asReadOnlyBuffer();
+		}
+	}
+
+	/**
+	 * Get the maximum size in bytes of a payload.
+	 *
+	 * @return the maximum payload size
+	 */
+	public int getMaxPayloadSize() {
+		return maxPayloadSize;
+	}
+
+	/**
+	 * Copy the message's {@code byte[]} or {@link ByteBuffer} payload off-heap and publish it, waiting at most {@code
+	 * timeout} milliseconds for a free slot. The position of a {@link ByteBuffer} payload is left unchanged.
+	 *
+	 * @param message the message to send
+	 * @param timeout the timeout in milliseconds, {@code 0} to never block or a negative value to wait indefinitely
+	 * @return {@code true} if the message was published, {@code false} if it was rejected
+	 * @throws IllegalArgumentException if the payload is not binary or is larger than the maximum payload size, or if
+	 *                                  the message has more headers than a slot can hold
+	 */
+	@Override
+	public boolean send(Message<?> message, long timeout) {
+		Object payload = message.getPayload();
+		Assert.isTrue(payload instanceof byte[] || payload instanceof ByteBuffer,
+				"Payload must be a byte[] or a ByteBuffer, not " + payload.getClass().getName());
+		int length = (payload instanceof byte[] ? ((byte[]) payload).length : ((ByteBuffer) payload).remaining());
+		Assert.isTrue(length <= maxPayloadSize, "Payload of " + length + " bytes exceeds the maximum of " +
+				maxPayloadSize);
+		int headerCount = 0;
+		for (String name : message.getHeaders().keySet()) {
+			if (isCarriedOver(name)) {
+				headerCount++;
+			}
+		}
+		Assert.isTrue(headerCount <= maxHeaders, "Message with " + headerCount + " headers exceeds the maximum of " +
+				maxHeaders);
+
+		MessageSlot slot = claim(timeout);
+		if (null == slot) {
+			incrementRejectedSends();
+			return false;
+		}
+		try {
+			slot.region.clear();
+			if (payload instanceof byte[]) {
+				slot.region.put((byte[]) payload);
+			} else {
+				slot.region.put(((ByteBuffer) payload).duplicate());
+			}
+			slot.view.limit(length).position(0);
+			slot.setPayload(slot.view);
+			for (Map.Entry<String, Object> header : message.getHeaders().entrySet()) {
+				if (isCarriedOver(header.getKey())) {
+					slot.setHeader(header.getKey(), header.getValue());
+				}
+			}
+		} catch (RuntimeException e) {
+			release(slot);
+			throw e;
+		}
+		publish(slot);
+		return true;
+	}
+
+	private static boolean isCarriedOver(String header) {
+		return !MessageHeaders.ID.equals(header) && !MessageHeaders.TIMESTAMP.equals(header);
+	}
+
+	@Override
+	protected Cancellation doSubscribe(MessageHandler handler) {
+		if (outlivesDispatch(handler)) {
+			return super.doSubscribe(handler);
+		}
+		return super.doSubscribe(message -> {
+			if (message instanceof MessageSlot && null != ((MessageSlot) message).view) {
+				((MessageSlot) message).view.rewind();
+			}
+			handler.handleMessage(message);
+		});
+	}
+
+	@Override
+	protected Message<?> copyOf(MessageSlot slot) {
+		ByteBuffer view = slot.view.duplicate();
+		view.rewind();
+		ByteBuffer copy = ByteBuffer.allocate(view.remaining());
+		copy.put(view).flip();
+		return new GenericMessage<>(copy.asReadOnlyBuffer(), slot.headerMap());
+	}
+
+}
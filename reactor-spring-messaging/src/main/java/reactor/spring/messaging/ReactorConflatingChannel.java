@@ -0,0 +1,165 @@
+package reactor.spring.messaging;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import reactor.core.Cancellation;
+import reactor.core.Exceptions;
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.TopicProcessor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
+
+/**
+ * Subscribable {@link org.springframework.messaging.MessageChannel} implementation that only keeps the latest message
+ * of each key for its handlers, for streams such as market data where intermediate updates are superseded by newer
+ * ones.
+ * <p>Messages are published to a RingBuffer-based Reactor {@link TopicProcessor}, whose dispatcher stores each message
+ * in a slot per key of every handler, replacing the message pending there if any, and marks the key dirty. Each handler
+ * runs on a thread of its own, taking the latest message of each dirty key in the order the keys became dirty. A
+ * handler keeping up receives every message, while a slow one skips straight to the current value of each key, and
+ * the memory held for a handler is bounded by the number of keys regardless of the update rate. Messages without a
+ * key are never conflated.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorConflatingChannel extends AbstractReactorSubscribableChannel implements DisposableBean {
+
+	private final TopicProcessor<Message<?>>   processor;
+	private final Function<Message<?>, Object> keyExtractor;
+	private final LongAdder                    conflatedMessages = new LongAdder();
+
+	/**
+	 * Create a {@literal ReactorConflatingChannel} conflating messages by the value of the given header.
+	 *
+	 * @param keyHeader the name of the header holding the conflation key
+	 */
+	public ReactorConflatingChannel(String keyHeader) {
+		this(false, headerKeyExtractor(keyHeader));
+	}
+
+	/**
+	 * Create a {@literal ReactorConflatingChannel} conflating messages by the key extracted by the given {@link
+	 * Function}.
+	 *
+	 * @param singleThreadedProducer whether to create a single-threaded producer or not
+	 * @param keyExtractor           the {@link Function} extracting the conflation key of a message
+	 */
+	public ReactorConflatingChannel(boolean singleThreadedProducer, Function<Message<?>, Object> keyExtractor) {
+		Assert.notNull(keyExtractor, "Conflation key extractor cannot be null");
+		this.keyExtractor = keyExtractor;
+		this.processor = (singleThreadedProducer ?
+				TopicProcessor.create(getBeanName(), QueueSupplier.SMALL_BUFFER_SIZE) :
+				TopicProcessor.share(getBeanName(), QueueSupplier.SMALL_BUFFER_SIZE));
+	}
+
+	/**
+	 * Get the number of messages replaced by a newer one with the same key before a handler could take them, summed
+	 * over all handlers.
+	 *
+	 * @return the number of conflated messages
+	 */
+	public long getConflatedCount() {
+		return conflatedMessages.sum();
+	}
+
+	@Override
+	public void destroy() {
+		processor.onComplete();
+		shutdownLagTracking();
+	}
+
+	@Override
+	protected Cancellation doSubscribe(MessageHandler handler) {
+		ConflatingMessageHandler conflating = new ConflatingMessageHandler(handler,
+				Schedulers.newSingle(getBeanName() + "-handler", true));
+		Cancellation subscription = subscribeHandler(processor, conflating);
+		return () -> {
+			subscription.dispose();
+			conflating.dispose();
+		};
+	}
+
+	@Override
+	protected FluxProcessor<Message<?>, Message<?>> getProcessor(Message<?> message) {
+		return processor;
+	}
+
+	private static Function<Message<?>, Object> headerKeyExtractor(final String header) {
+		Assert.hasText(header, "Conflation key header cannot be empty");
+		return message -> message.getHeaders().get(header);
+	}
+
+	/**
+	 * Keeps the latest message of each key for a handler. A key is queued as dirty when a message is stored in its
+	 * empty slot, and its slot emptied when the handler takes the message, so that a message replacing a pending one
+	 * is taken in its place.
+	 */
+	private final class ConflatingMessageHandler implements MessageHandler, Cancellation {
+		private final Map<Object, Message<?>> slots     = new ConcurrentHashMap<>();
+		private final Queue<Object>           dirtyKeys = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger           wip       = new AtomicInteger();
+		private final Runnable                drainTask = this::drain;
+		private final MessageHandler          delegate;
+		private final Scheduler               scheduler;
+
+		private volatile boolean disposed;
+
+		ConflatingMessageHandler(MessageHandler delegate, Scheduler scheduler) {
+			this.delegate = delegate;
+			this.scheduler = scheduler;
+		}
+
+		@Override
+		public void handleMessage(Message<?> message) {
+			Object key = keyExtractor.apply(message);
+			if (null == key) {
+				key = new Object();
+			}
+			if (null != slots.put(key, message)) {
+				conflatedMessages.increment();
+				return;
+			}
+			dirtyKeys.offer(key);
+			if (wip.getAndIncrement() == 0) {
+				scheduler.schedule(drainTask);
+			}
+		}
+
+		@Override
+		public void dispose() {
+			disposed = true;
+			scheduler.shutdown();
+			dirtyKeys.clear();
+			slots.clear();
+		}
+
+		private void drain() {
+			do {
+				Object key = dirtyKeys.poll();
+				if (disposed || null == key) {
+					return;
+				}
+				Message<?> message = slots.remove(key);
+				try {
+					delegate.handleMessage(message);
+				} catch (Throwable t) {
+					Exceptions.throwIfFatal(t);
+					log.error("Failed to handle " + message + " with " + delegate, t);
+				}
+			} while (wip.decrementAndGet() != 0);
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+package reactor.spring.messaging;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.Cancellation;
+import reactor.core.Exceptions;
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.WorkQueueProcessor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+
+/**
+ * Point-to-point {@link org.springframework.messaging.SubscribableChannel} implementation that uses the
+ * RingBuffer-based Reactor {@link reactor.core.publisher.WorkQueueProcessor} to publish messages.
+ * <p>Subscribed {@link org.springframework.messaging.MessageHandler}s are competing consumers: each message is
+ * handled by exactly one of them, so the load is balanced across handlers, each running on its own thread. Handlers
+ * can be subscribed and unsubscribed at any time; messages sent while no handler is subscribed wait in the {@code
+ * RingBuffer} for the next one.</p>
+ * <p>A message the processor hands to a handler just unsubscribed is published again, behind the messages sent in the
+ * meantime, so it may be handled after messages sent after it. If the {@code RingBuffer} is full, it is published from
+ * a thread of the channel, waiting at most {@value #REPUBLISH_TIMEOUT} milliseconds for a free slot before it is
+ * dropped.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorExecutorChannel extends AbstractReactorSubscribableChannel implements DisposableBean {
+
+	/**
+	 * Time in milliseconds a message handed to an unsubscribed handler waits for a free slot to be published again.
+	 */
+	public static final long REPUBLISH_TIMEOUT = 10000L;
+
+	private final WorkQueueProcessor<Message<?>> processor;
+	private final Scheduler                      republisher;
+
+	/**
+	 * Create a default multi-threaded producer channel.
+	 */
+	public ReactorExecutorChannel() {
+		this(false);
+	}
+
+	/**
+	 * Create a {@literal ReactorExecutorChannel} for a single or multiple producer threads.
+	 *
+	 * @param singleThreadedProducer whether to create a single-threaded producer or not
+	 */
+	public ReactorExecutorChannel(boolean singleThreadedProducer) {
+		this(singleThreadedProducer, QueueSupplier.SMALL_BUFFER_SIZE);
+	}
+
+	/**
+	 * Create a {@literal ReactorExecutorChannel} for a single or multiple producer threads.
+	 *
+	 * @param singleThreadedProducer whether to create a single-threaded producer or not
+	 * @param backlog                the size of the {@code RingBuffer}
+	 */
+	public ReactorExecutorChannel(boolean singleThreadedProducer, int backlog) {
+		if (singleThreadedProducer) {
+			this.processor = WorkQueueProcessor.create(getBeanName(), backlog, false);
+		} else {
+			this.processor = WorkQueueProcessor.share(getBeanName(), backlog, false);
+		}
+		this.republisher = Schedulers.newSingle(getBeanName() + "-republisher", true);
+	}
+
+	@Override
+	protected Cancellation doSubscribe(MessageHandler handler) {
+		WorkerSubscriber worker = new WorkerSubscriber(handler);
+		processor.subscribe(worker);
+		return worker;
+	}
+
+	@Override
+	protected FluxProcessor<Message<?>, Message<?>> getProcessor(Message<?> message) {
+		return processor;
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		processor.onComplete();
+		republisher.shutdown();
+		shutdownLagTracking();
+	}
+
+	/**
+	 * Publish a message claimed by a worker that has since been cancelled again, for another worker to take. The
+	 * cancelled worker holds its slot of the {@code RingBuffer} until it returns, so if the {@code RingBuffer} is full
+	 * the message is published from the republishing thread rather than waiting on a slot that cannot be freed.
+	 */
+	private void republish(Message<?> message) {
+		if (publish(processor, message, 0)) {
+			return;
+		}
+		Cancellation task = republisher.schedule(() -> {
+			if (!publish(processor, message, REPUBLISH_TIMEOUT)) {
+				log.error("Dropped " + message + " handed to an unsubscribed handler, as no slot was free within " +
+						REPUBLISH_TIMEOUT + " ms");
+			}
+		});
+		if (task == Scheduler.REJECTED) {
+			log.error("Dropped " + message + " handed to an unsubscribed handler, as " + getBeanName() +
+					" is shut down");
+		}
+	}
+
+	/**
+	 * Subscriber running a handler on its own {@link WorkQueueProcessor} thread. The processor may still hand a
+	 * message to a worker that has just been cancelled, which is then published again instead of being lost, so that
+	 * one of the remaining workers, or the next one to subscribe, takes it on its own thread.
+	 */
+	private final class WorkerSubscriber implements Subscriber<Message<?>>, Cancellation {
+		private final MessageHandler handler;
+
+		private volatile Subscription subscription;
+		private volatile boolean      cancelled;
+
+		WorkerSubscriber(MessageHandler handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			subscription = s;
+			if (cancelled) {
+				s.cancel();
+				return;
+			}
+			s.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(Message<?> message) {
+			if (cancelled) {
+				republish(message);
+				return;
+			}
+			try {
+				handler.handleMessage(message);
+			} catch (Throwable t) {
+				Exceptions.throwIfFatal(t);
+				log.error("Failed to handle " + message + " with " + handler, t);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			log.error("", t);
+		}
+
+		@Override
+		public void onComplete() {
+			log.trace(handler + " has been completed");
+		}
+
+		@Override
+		public void dispose() {
+			cancelled = true;
+			Subscription s = subscription;
+			if (null != s) {
+				s.cancel();
+			}
+		}
+	}
+
+}
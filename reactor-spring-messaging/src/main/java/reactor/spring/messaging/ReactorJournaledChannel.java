@@ -0,0 +1,373 @@
+package reactor.spring.messaging;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.openhft.chronicle.Chronicle;
+import net.openhft.chronicle.ExcerptAppender;
+import net.openhft.chronicle.ExcerptTailer;
+import net.openhft.chronicle.IndexedChronicle;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.Cancellation;
+import reactor.core.Exceptions;
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.TopicProcessor;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.Assert;
+
+import reactor.spring.messaging.codec.JdkSerializationMessageCodec;
+import reactor.spring.messaging.codec.MessageCodec;
+
+/**
+ * Subscribable {@link org.springframework.messaging.MessageChannel} implementation that appends every message to a
+ * memory-mapped OpenHFT {@link IndexedChronicle} journal before dispatching it through a RingBuffer-based Reactor
+ * {@link TopicProcessor}.
+ * <p>Handlers subscribed with an id through {@link #subscribe(String, MessageHandler)} are durable: the journal index
+ * of the last message each of them handled is kept in a memory-mapped file next to the journal, and when the same id
+ * subscribes again, for instance after a restart, the messages it had not handled yet are replayed from the journal
+ * before live ones. A message is acknowledged once its handler returns, even if it failed, so that a failing message
+ * is not replayed forever. Other handlers only receive messages sent after they subscribed.</p>
+ * <p>Messages are encoded with a {@link MessageCodec}, by default using Java serialization. Handlers receive the sent
+ * message itself, or its decoded copy when it is replayed.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorJournaledChannel extends AbstractReactorSubscribableChannel implements DisposableBean {
+
+	private final String                     basePath;
+	private final MessageCodec               codec;
+	private final Chronicle                  journal;
+	private final ExcerptAppender            appender;
+	private final TopicProcessor<Message<?>> processor;
+
+	private final Map<String, JournalPosition> positions = new ConcurrentHashMap<>();
+
+	/**
+	 * Create a multi-threaded producer channel journaling messages with Java serialization.
+	 *
+	 * @param basePath the base path of the journal files
+	 * @throws IOException if the journal cannot be opened
+	 */
+	public ReactorJournaledChannel(String basePath) throws IOException {
+		this(basePath, new JdkSerializationMessageCodec(), false);
+	}
+
+	/**
+	 * Create a {@literal ReactorJournaledChannel}.
+	 *
+	 * @param basePath               the base path of the journal files
+	 * @param codec                  the {@link MessageCodec} used to journal messages
+	 * @param singleThreadedProducer whether to create a single-threaded producer or not
+	 * @throws IOException if the journal cannot be opened
+	 */
+	public ReactorJournaledChannel(String basePath, MessageCodec codec, boolean singleThreadedProducer)
+			throws IOException {
+		Assert.hasText(basePath, "Journal base path cannot be empty");
+		Assert.notNull(codec, "MessageCodec cannot be null");
+		this.basePath = basePath;
+		this.codec = codec;
+		this.journal = new IndexedChronicle(basePath);
+		this.appender = journal.createAppender();
+
+		if (singleThreadedProducer) {
+			this.processor = TopicProcessor.create(getBeanName(), QueueSupplier.SMALL_BUFFER_SIZE);
+		} else {
+			this.processor = TopicProcessor.share(getBeanName(), QueueSupplier.SMALL_BUFFER_SIZE);
+		}
+	}
+
+	/**
+	 * Subscribe a durable {@link MessageHandler}, first replaying the journaled messages the given subscriber id has
+	 * not acknowledged yet.
+	 *
+	 * @param subscriberId the id under which the handler's journal position is kept
+	 * @param handler      the handler to subscribe
+	 * @return {@code true} if the handler was subscribed, {@code false} if it already was
+	 * @throws IllegalStateException if the subscriber id is already in use
+	 */
+	public boolean subscribe(String subscriberId, MessageHandler handler) {
+		Assert.hasText(subscriberId, "Subscriber id cannot be empty");
+		return subscribeTarget(handler, new DurableMessageHandler(subscriberId, handler));
+	}
+
+	/**
+	 * Get the journal index of the last message acknowledged by a durable subscriber.
+	 *
+	 * @param subscriberId the subscriber id
+	 * @return the index of the last acknowledged message, or {@code -1} if none was
+	 */
+	public long getAcknowledgedIndex(String subscriberId) {
+		JournalPosition position = positions.get(subscriberId);
+		if (null != position) {
+			return position.get();
+		}
+		try (JournalPosition stored = new JournalPosition(ackPath(subscriberId))) {
+			return stored.get();
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to read the journal position of " + subscriberId, e);
+		}
+	}
+
+	/**
+	 * Get the journal index of the last journaled message.
+	 *
+	 * @return the index of the last message, or {@code -1} if the journal is empty
+	 */
+	public long getLastJournaledIndex() {
+		return journal.lastWrittenIndex();
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		processor.onComplete();
+		shutdownLagTracking();
+		journal.close();
+	}
+
+	@Override
+	protected Message<?> beforePublish(Message<?> message) {
+		byte[] bytes = codec.encode(message);
+		long index;
+		synchronized (appender) {
+			appender.startExcerpt(4 + bytes.length);
+			appender.writeInt(bytes.length);
+			appender.write(bytes);
+			appender.finish();
+			index = journal.lastWrittenIndex();
+		}
+		return new JournaledMessage(message, index);
+	}
+
+	@Override
+	protected Cancellation doSubscribe(MessageHandler handler) {
+		JournalSubscriber subscriber;
+		if (handler instanceof DurableMessageHandler) {
+			DurableMessageHandler durable = (DurableMessageHandler) handler;
+			JournalPosition position;
+			try {
+				position = new JournalPosition(ackPath(durable.subscriberId));
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed to open the journal position of " + durable.subscriberId, e);
+			}
+			if (null != positions.putIfAbsent(durable.subscriberId, position)) {
+				closeQuietly(position, durable.subscriberId);
+				throw new IllegalStateException("Subscriber id " + durable.subscriberId + " is already in use");
+			}
+			subscriber = new JournalSubscriber(durable.delegate, position, durable.subscriberId);
+		} else {
+			JournalPosition position = new JournalPosition();
+			position.set(journal.lastWrittenIndex());
+			subscriber = new JournalSubscriber(handler, position, null);
+		}
+		processor.subscribe(subscriber);
+		return subscriber;
+	}
+
+	@Override
+	protected FluxProcessor<Message<?>, Message<?>> getProcessor(Message<?> message) {
+		return processor;
+	}
+
+	private String ackPath(String subscriberId) {
+		return basePath + "." + subscriberId + ".ack";
+	}
+
+	private void closeQuietly(JournalPosition position, String subscriberId) {
+		try {
+			position.close();
+		} catch (IOException e) {
+			log.warn("Failed to close the journal position of " + subscriberId, e);
+		}
+	}
+
+	/**
+	 * Index of the last message handled by a subscriber, kept in a memory-mapped file for durable subscribers.
+	 */
+	private static final class JournalPosition implements AutoCloseable {
+		private final RandomAccessFile file;
+		private final MappedByteBuffer buffer;
+
+		private long index = -1L;
+
+		JournalPosition() {
+			this.file = null;
+			this.buffer = null;
+		}
+
+		JournalPosition(String path) throws IOException {
+			this.file = new RandomAccessFile(path, "rw");
+			boolean created = (file.length() < 8);
+			this.buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 8);
+			if (created) {
+				buffer.putLong(0, -1L);
+			}
+			this.index = buffer.getLong(0);
+		}
+
+		long get() {
+			return index;
+		}
+
+		void set(long index) {
+			this.index = index;
+			if (null != buffer) {
+				buffer.putLong(0, index);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (null != file) {
+				file.close();
+			}
+		}
+	}
+
+	/**
+	 * Subscriber delivering messages to a handler in journal order, reading from the journal any message it did not
+	 * receive from the processor: those journaled before it subscribed, or while it was attaching.
+	 */
+	private final class JournalSubscriber implements Subscriber<Message<?>>, Cancellation {
+		private final MessageHandler  handler;
+		private final JournalPosition position;
+		private final String          subscriberId;
+
+		private ExcerptTailer tailer;
+
+		private volatile Subscription subscription;
+		private volatile boolean      cancelled;
+
+		JournalSubscriber(MessageHandler handler, JournalPosition position, String subscriberId) {
+			this.handler = handler;
+			this.position = position;
+			this.subscriberId = subscriberId;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			subscription = s;
+			if (cancelled) {
+				s.cancel();
+				return;
+			}
+			replayUpTo(journal.lastWrittenIndex());
+			s.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(Message<?> message) {
+			JournaledMessage journaled = (JournaledMessage) message;
+			if (cancelled || journaled.index <= position.get()) {
+				return;
+			}
+			replayUpTo(journaled.index - 1);
+			handle(journaled.message, journaled.index);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			log.error("", t);
+		}
+
+		@Override
+		public void onComplete() {
+			release();
+		}
+
+		@Override
+		public void dispose() {
+			cancelled = true;
+			Subscription s = subscription;
+			if (null != s) {
+				s.cancel();
+			}
+			release();
+		}
+
+		private void replayUpTo(long lastIndex) {
+			for (long index = position.get() + 1; index <= lastIndex && !cancelled; index++) {
+				handle(read(index), index);
+			}
+		}
+
+		private Message<?> read(long index) {
+			try {
+				if (null == tailer) {
+					tailer = journal.createTailer();
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException("Failed to read the journal of " + getBeanName(), e);
+			}
+			Assert.state(tailer.index(index), "Message " + index + " is missing from the journal");
+			byte[] bytes = new byte[tailer.readInt()];
+			tailer.readFully(bytes);
+			tailer.finish();
+			return codec.decode(bytes);
+		}
+
+		private void handle(Message<?> message, long index) {
+			try {
+				handler.handleMessage(message);
+			} catch (Throwable t) {
+				Exceptions.throwIfFatal(t);
+				log.error("Failed to handle " + message + " with " + handler, t);
+			}
+			position.set(index);
+		}
+
+		private void release() {
+			if (null != subscriberId && positions.remove(subscriberId, position)) {
+				closeQuietly(position, subscriberId);
+			}
+		}
+	}
+
+	private static final class DurableMessageHandler implements MessageHandler {
+		final String         subscriberId;
+		final MessageHandler delegate;
+
+		DurableMessageHandler(String subscriberId, MessageHandler delegate) {
+			this.subscriberId = subscriberId;
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void handleMessage(Message<?> message) {
+			delegate.handleMessage(message);
+		}
+	}
+
+	/**
+	 * A sent message together with its journal index.
+	 */
+	private static final class JournaledMessage implements Message<Object> {
+		final Message<?> message;
+		final long       index;
+
+		JournaledMessage(Message<?> message, long index) {
+			this.message = message;
+			this.index = index;
+		}
+
+		@Override
+		public Object getPayload() {
+			return message.getPayload();
+		}
+
+		@Override
+		public MessageHeaders getHeaders() {
+			return message.getHeaders();
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package reactor.spring.messaging;
+
+import java.util.function.Function;
+
+import reactor.core.Cancellation;
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.TopicProcessor;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
+
+/**
+ * Subscribable {@link org.springframework.messaging.MessageChannel} implementation that partitions messages across
+ * a number of RingBuffer-based Reactor {@link TopicProcessor}s, each drained by a single dispatcher thread.
+ * <p>A message is routed to a partition by its key, read from a header or derived from the message by a {@link
+ * Function}. Messages sharing a key are always delivered in order, on the same thread, while messages with different
+ * keys are delivered in parallel. Messages without a key go to the first partition.</p>
+ * <p>Every subscribed {@link MessageHandler} receives every message, so a handler may be invoked concurrently from
+ * different partitions and must be thread-safe.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorPartitionedChannel extends AbstractReactorSubscribableChannel implements DisposableBean {
+
+	private final TopicProcessor<Message<?>>[] processors;
+	private final Function<Message<?>, Object> partitionKeyExtractor;
+	private final MessageHandlerMultiplexer    multiplexer = new MessageHandlerMultiplexer();
+
+	/**
+	 * Create a {@literal ReactorPartitionedChannel} partitioning messages by the value of the given header.
+	 *
+	 * @param partitions   the number of partitions, and so of dispatcher threads
+	 * @param partitionKey the name of the header holding the partition key
+	 */
+	public ReactorPartitionedChannel(int partitions, String partitionKey) {
+		this(partitions, headerKeyExtractor(partitionKey));
+	}
+
+	/**
+	 * Create a {@literal ReactorPartitionedChannel} partitioning messages by the key extracted by the given {@link
+	 * Function}.
+	 *
+	 * @param partitions            the number of partitions, and so of dispatcher threads
+	 * @param partitionKeyExtractor the {@link Function} extracting the partition key of a message
+	 */
+	public ReactorPartitionedChannel(int partitions, Function<Message<?>, Object> partitionKeyExtractor) {
+		this(partitions, QueueSupplier.SMALL_BUFFER_SIZE, partitionKeyExtractor);
+	}
+
+	/**
+	 * Create a {@literal ReactorPartitionedChannel} partitioning messages by the key extracted by the given {@link
+	 * Function}.
+	 *
+	 * @param partitions            the number of partitions, and so of dispatcher threads
+	 * @param backlog               the size of each partition's {@code RingBuffer}
+	 * @param partitionKeyExtractor the {@link Function} extracting the partition key of a message
+	 */
+	@SuppressWarnings("unchecked")
+	public ReactorPartitionedChannel(int partitions, int backlog, Function<Message<?>, Object> partitionKeyExtractor) {
+		Assert.isTrue(partitions > 0, "At least one partition is required");
+		Assert.notNull(partitionKeyExtractor, "Partition key extractor cannot be null");
+		this.partitionKeyExtractor = partitionKeyExtractor;
+
+		this.processors = new TopicProcessor[partitions];
+		for (int i = 0; i < partitions; i++) {
+			this.processors[i] = TopicProcessor.share(getBeanName() + "-" + i, backlog);
+			this.processors[i].subscribe(multiplexer.newDispatcher());
+		}
+	}
+
+	/**
+	 * Get the number of partitions messages are spread across.
+	 *
+	 * @return the number of partitions
+	 */
+	public int getPartitions() {
+		return processors.length;
+	}
+
+	@Override
+	public void destroy() {
+		for (TopicProcessor<Message<?>> processor : processors) {
+			processor.onComplete();
+		}
+		shutdownLagTracking();
+	}
+
+	@Override
+	protected Cancellation doSubscribe(final MessageHandler handler) {
+		multiplexer.add(handler);
+		return () -> multiplexer.remove(handler);
+	}
+
+	@Override
+	protected FluxProcessor<Message<?>, Message<?>> getProcessor(Message<?> message) {
+		return processors[partitionOf(message)];
+	}
+
+	private int partitionOf(Message<?> message) {
+		if (processors.length == 1) {
+			return 0;
+		}
+		Object key = partitionKeyExtractor.apply(message);
+		return (null != key ? (key.hashCode() & Integer.MAX_VALUE) % processors.length : 0);
+	}
+
+	private static Function<Message<?>, Object> headerKeyExtractor(final String header) {
+		Assert.hasText(header, "Partition key header cannot be empty");
+		return message -> message.getHeaders().get(header);
+	}
+
+}
@@ -0,0 +1,228 @@
+package reactor.spring.messaging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Cancellation;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.TimedScheduler;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.Assert;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * Request-reply gateway sending requests to a {@link MessageChannel} and completing each request's reply straight from
+ * the handler of a shared reply channel, typically a {@link ReactorSubscribableChannel}.
+ * <p>Each request is sent with a {@link #CORRELATION_ID_HEADER correlation id} header, which responders must copy to
+ * their reply, and with the reply channel as its {@link org.springframework.messaging.MessageHeaders#REPLY_CHANNEL
+ * reply channel} header. Pending replies are kept in a concurrent map by correlation id, so that no temporary channel
+ * is created and no thread blocks per request. The reply timeouts of all requests are scheduled on a single timer.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorRequestReplyGateway implements MessageHandler, DisposableBean {
+
+	/**
+	 * Name of the header correlating a reply with its request.
+	 */
+	public static final String CORRELATION_ID_HEADER = "correlationId";
+
+	/**
+	 * Default time in milliseconds to wait for a reply.
+	 */
+	public static final long DEFAULT_REPLY_TIMEOUT = 5000L;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final Map<Object, PendingReply>  pendingReplies = new ConcurrentHashMap<>();
+	private final TimedScheduler             timer          = Schedulers.newTimer("requestReplyGateway");
+	private final MessageChannel             requestChannel;
+	private final SubscribableChannel        replyChannel;
+	private final ReactorSubscribableChannel ownReplyChannel;
+
+	/**
+	 * Create a {@literal ReactorRequestReplyGateway} receiving replies on a {@link ReactorSubscribableChannel} of its
+	 * own, which is destroyed with the gateway.
+	 *
+	 * @param requestChannel the channel requests are sent to
+	 */
+	public ReactorRequestReplyGateway(MessageChannel requestChannel) {
+		this(requestChannel, new ReactorSubscribableChannel(), true);
+	}
+
+	/**
+	 * Create a {@literal ReactorRequestReplyGateway} receiving replies on the given channel, which it subscribes to.
+	 * Replies to requests of other gateways sharing the reply channel are ignored.
+	 *
+	 * @param requestChannel the channel requests are sent to
+	 * @param replyChannel   the channel replies are received from
+	 */
+	public ReactorRequestReplyGateway(MessageChannel requestChannel, SubscribableChannel replyChannel) {
+		this(requestChannel, replyChannel, false);
+	}
+
+	private ReactorRequestReplyGateway(MessageChannel requestChannel, SubscribableChannel replyChannel,
+	                                   boolean ownsReplyChannel) {
+		Assert.notNull(requestChannel, "Request channel cannot be null");
+		Assert.notNull(replyChannel, "Reply channel cannot be null");
+		this.requestChannel = requestChannel;
+		this.replyChannel = replyChannel;
+		this.ownReplyChannel = (ownsReplyChannel ? (ReactorSubscribableChannel) replyChannel : null);
+		replyChannel.subscribe(this);
+	}
+
+	/**
+	 * Get the channel replies are received from.
+	 *
+	 * @return the reply channel
+	 */
+	public SubscribableChannel getReplyChannel() {
+		return replyChannel;
+	}
+
+	/**
+	 * Get the number of requests awaiting their reply.
+	 *
+	 * @return the number of pending replies
+	 */
+	public int getPendingReplyCount() {
+		return pendingReplies.size();
+	}
+
+	/**
+	 * Send a request and wait for its reply for the default timeout.
+	 *
+	 * @param request the request
+	 * @return a {@link Mono} completed with the reply
+	 * @see #sendAndReceive(Message, long)
+	 */
+	public Mono<Message<?>> sendAndReceive(Message<?> request) {
+		return sendAndReceive(request, DEFAULT_REPLY_TIMEOUT);
+	}
+
+	/**
+	 * Send a request right away and return its reply. The returned {@link Mono} fails with a {@link
+	 * MessageDeliveryException} if the request channel rejects the request or no reply is received within the
+	 * timeout.
+	 *
+	 * @param request the request
+	 * @param timeout the time in milliseconds to wait for the reply
+	 * @return a {@link Mono} completed with the reply
+	 */
+	public Mono<Message<?>> sendAndReceive(Message<?> request, long timeout) {
+		Assert.notNull(request, "Request cannot be null");
+		Assert.isTrue(timeout > 0, "Reply timeout must be positive");
+		Object correlationId = request.getHeaders().getId();
+		MonoProcessor<Message<?>> reply = MonoProcessor.create();
+		PendingReply pending = new PendingReply(reply);
+		if (null != pendingReplies.putIfAbsent(correlationId, pending)) {
+			return Mono.error(new IllegalStateException("Request " + correlationId + " is already awaiting a reply"));
+		}
+		pending.timeout = timer.schedule(() -> {
+			if (pendingReplies.remove(correlationId, pending)) {
+				reply.onError(new MessageDeliveryException(request, "No reply received within " + timeout + " ms"));
+			}
+		}, timeout, TimeUnit.MILLISECONDS);
+
+		Message<?> correlated = MessageBuilder.fromMessage(request)
+		                                      .setHeader(CORRELATION_ID_HEADER, correlationId)
+		                                      .setReplyChannel(replyChannel)
+		                                      .build();
+		try {
+			if (!requestChannel.send(correlated)) {
+				fail(correlationId, new MessageDeliveryException(request, "Request was rejected by " + requestChannel));
+			}
+		} catch (RuntimeException e) {
+			fail(correlationId, e);
+		}
+		return reply;
+	}
+
+	/**
+	 * Send a request and return its reply as a {@link ListenableFuture}.
+	 *
+	 * @param request the request
+	 * @param timeout the time in milliseconds to wait for the reply
+	 * @return a {@link ListenableFuture} completed with the reply
+	 * @see #sendAndReceive(Message, long)
+	 */
+	public ListenableFuture<Message<?>> sendAndReceiveAsync(Message<?> request, long timeout) {
+		SettableListenableFuture<Message<?>> future = new SettableListenableFuture<>();
+		sendAndReceive(request, timeout).subscribe(future::set, future::setException);
+		return future;
+	}
+
+	/**
+	 * Complete the pending reply of the request this message correlates to. Replies without a pending request, for
+	 * instance received after their timeout, are ignored.
+	 *
+	 * @param message the reply
+	 */
+	@Override
+	public void handleMessage(Message<?> message) {
+		Object correlationId = message.getHeaders().get(CORRELATION_ID_HEADER);
+		PendingReply pending = (null != correlationId ? pendingReplies.remove(correlationId) : null);
+		if (null == pending) {
+			if (log.isDebugEnabled()) {
+				log.debug("Ignoring reply without pending request: " + message);
+			}
+			return;
+		}
+		Cancellation timeout = pending.timeout;
+		if (null != timeout) {
+			timeout.dispose();
+		}
+		pending.reply.onNext(message);
+	}
+
+	/**
+	 * Unsubscribe from the reply channel and fail every pending reply. A reply channel the gateway created itself is
+	 * destroyed too.
+	 */
+	@Override
+	public void destroy() {
+		replyChannel.unsubscribe(this);
+		timer.shutdown();
+		for (Object correlationId : pendingReplies.keySet()) {
+			fail(correlationId, new IllegalStateException("Request-reply gateway was shut down"));
+		}
+		if (null != ownReplyChannel) {
+			ownReplyChannel.destroy();
+		}
+	}
+
+	private void fail(Object correlationId, Throwable error) {
+		PendingReply pending = pendingReplies.remove(correlationId);
+		if (null != pending) {
+			Cancellation timeout = pending.timeout;
+			if (null != timeout) {
+				timeout.dispose();
+			}
+			pending.reply.onError(error);
+		}
+	}
+
+	private static final class PendingReply {
+		final MonoProcessor<Message<?>> reply;
+
+		volatile Cancellation timeout;
+
+		PendingReply(MonoProcessor<Message<?>> reply) {
+			this.reply = reply;
+		}
+	}
+
+}
@@ -0,0 +1,437 @@
+package reactor.spring.messaging;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import net.openhft.lang.io.MappedFile;
+import net.openhft.lang.io.MappedMemory;
+import net.openhft.lang.io.NativeBytes;
+import reactor.core.Cancellation;
+import reactor.core.Exceptions;
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.TopicProcessor;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
+
+import reactor.spring.messaging.codec.JdkSerializationMessageCodec;
+import reactor.spring.messaging.codec.MessageCodec;
+
+/**
+ * Subscribable {@link org.springframework.messaging.MessageChannel} implementation whose transport is a ring of
+ * fixed-size slots in a memory-mapped file, shared by every JVM on the host that opens the same file.
+ * <p>Sending encodes the message with a {@link MessageCodec} straight into the next slot of the ring. In each JVM,
+ * a reader thread polls the ring, decodes new messages and publishes them to a local RingBuffer-based Reactor {@link
+ * TopicProcessor} the subscribed handlers listen to, so that every handler in every process receives every message,
+ * including the ones sent from its own process. Several processes can send to the same ring.</p>
+ * <p>Each reader registers its position in the ring file, in one of {@value #MAX_READERS} entries, and renews a
+ * lease on it as it goes. A sender does not overwrite a slot a live reader has not read yet: {@link #send(Message,
+ * long)} waits at most its timeout for the slowest reader and otherwise rejects the message. A reader whose lease has
+ * expired, because its process died or it stayed stuck handing a message over for {@value #READER_LEASE_MILLIS}
+ * milliseconds, is no longer waited for, as are readers beyond the registry's capacity; such a reader may fall a
+ * whole ring behind, in which case it skips the overwritten messages and counts them as {@link
+ * #getLostMessageCount() lost}.</p>
+ * <p>A slot is published even if encoding its message fails, marked as holding no message. A slot claimed by a sender
+ * that dies before publishing it is skipped by readers once it has stayed unpublished for {@value
+ * #SLOT_WRITE_TIMEOUT_MILLIS} milliseconds, and counted as lost.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorSharedMemoryChannel extends AbstractReactorSubscribableChannel implements DisposableBean {
+
+	/**
+	 * Default number of slots of the ring.
+	 */
+	public static final int DEFAULT_SLOTS = 1024;
+
+	/**
+	 * Default size in bytes of a slot, including its 12 bytes of slot header.
+	 */
+	public static final int DEFAULT_SLOT_SIZE = 1024;
+
+	/**
+	 * Number of readers whose position a ring file can register.
+	 */
+	public static final int MAX_READERS = 16;
+
+	/**
+	 * Time in milliseconds after which senders stop waiting for a reader that has not renewed its lease.
+	 */
+	public static final long READER_LEASE_MILLIS = 10000;
+
+	/**
+	 * Time in milliseconds after which readers skip a slot claimed by a sender but still not published.
+	 */
+	public static final long SLOT_WRITE_TIMEOUT_MILLIS = 10000;
+
+	private static final int MAGIC = 0x52534d43;
+
+	private static final long HEARTBEAT_MILLIS    = 1000;
+	private static final long INIT_TIMEOUT_MILLIS = 10000;
+	private static final long MIN_BACKOFF_NANOS   = TimeUnit.MICROSECONDS.toNanos(1);
+	private static final long MAX_BACKOFF_NANOS   = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final int MAGIC_OFFSET       = 0;
+	private static final int SLOTS_OFFSET       = 4;
+	private static final int SLOT_SIZE_OFFSET   = 8;
+	private static final int CURSOR_OFFSET      = 64;
+	private static final int READERS_OFFSET     = 128;
+	private static final int READER_SIZE        = 64;
+	private static final int READER_LEASE_INDEX = 8;
+	private static final int HEADER_SIZE        = READERS_OFFSET + MAX_READERS * READER_SIZE;
+	private static final int SLOT_HEADER_SIZE   = 12;
+	private static final int SLOT_LENGTH_INDEX  = 8;
+
+	private final MessageCodec               codec;
+	private final MappedFile                 file;
+	private final MappedMemory               memory;
+	private final NativeBytes                ring;
+	private final int                        slots;
+	private final int                        slotSize;
+	private final long                       mask;
+	private final TopicProcessor<Message<?>> processor;
+	private final LongAdder                  lostMessages = new LongAdder();
+	private final RingReader                 readerTask;
+	private final Thread                     reader;
+
+	private volatile boolean running = true;
+
+	// position of the slowest reader last time the readers were scanned, only ever behind their actual positions
+	private volatile long slowestRead;
+
+	/**
+	 * Create a {@literal ReactorSharedMemoryChannel} over the given file with default settings, using Java
+	 * serialization.
+	 *
+	 * @param path the path of the ring file
+	 * @throws IOException if the ring file cannot be mapped
+	 */
+	public ReactorSharedMemoryChannel(String path) throws IOException {
+		this(path, DEFAULT_SLOTS, DEFAULT_SLOT_SIZE, new JdkSerializationMessageCodec(), 1000L);
+	}
+
+	/**
+	 * Create a {@literal ReactorSharedMemoryChannel}. A new ring file is initialized with the given geometry, which
+	 * an existing one must match.
+	 *
+	 * @param path      the path of the ring file
+	 * @param slots     the number of slots of the ring, as a power of 2
+	 * @param slotSize  the size in bytes of a slot, bounding the size of an encoded message
+	 * @param codec     the {@link MessageCodec} used to encode messages
+	 * @param idleNanos the time in nanoseconds the reader thread parks when there is no new message
+	 * @throws IOException if the ring file cannot be mapped
+	 */
+	public ReactorSharedMemoryChannel(String path, int slots, int slotSize, MessageCodec codec, long idleNanos)
+			throws IOException {
+		Assert.hasText(path, "Ring file path cannot be empty");
+		Assert.isTrue(slots > 0 && Integer.bitCount(slots) == 1, "The number of slots must be a power of 2");
+		Assert.isTrue(slotSize > SLOT_HEADER_SIZE && slotSize % 8 == 0,
+				"Slot size must be a multiple of 8 larger than " + SLOT_HEADER_SIZE);
+		Assert.notNull(codec, "MessageCodec cannot be null");
+		this.codec = codec;
+		this.slots = slots;
+		this.slotSize = slotSize;
+		this.mask = slots - 1;
+
+		long size = HEADER_SIZE + (long) slots * slotSize;
+		this.file = new MappedFile(path, size);
+		this.memory = file.acquire(0);
+		this.ring = new NativeBytes(memory.address(), memory.address(), memory.address() + size);
+		if (ring.compareAndSwapInt(MAGIC_OFFSET, 0, -1)) {
+			ring.writeInt(SLOTS_OFFSET, slots);
+			ring.writeInt(SLOT_SIZE_OFFSET, slotSize);
+			ring.writeOrderedLong(CURSOR_OFFSET, 0L);
+			ring.writeOrderedInt(MAGIC_OFFSET, MAGIC);
+		}
+		long initDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(INIT_TIMEOUT_MILLIS);
+		while (ring.readVolatileInt(MAGIC_OFFSET) != MAGIC) {
+			Assert.state(System.nanoTime() - initDeadline < 0, "Ring file " + path + " was not initialized within " +
+					INIT_TIMEOUT_MILLIS + " ms, the process initializing it may have died: remove it to start over");
+			LockSupport.parkNanos(1000L);
+		}
+		Assert.state(ring.readInt(SLOTS_OFFSET) == slots && ring.readInt(SLOT_SIZE_OFFSET) == slotSize,
+				"Ring file " + path + " has a different geometry");
+
+		this.processor = TopicProcessor.create(getBeanName(), QueueSupplier.SMALL_BUFFER_SIZE);
+		this.readerTask = new RingReader(idleNanos);
+		this.reader = new Thread(readerTask, getBeanName() + "-reader");
+		this.reader.setDaemon(true);
+		this.reader.start();
+	}
+
+	/**
+	 * Get the largest size in bytes of an encoded message.
+	 *
+	 * @return the maximum encoded message size
+	 */
+	public int getMaxMessageSize() {
+		return slotSize - SLOT_HEADER_SIZE;
+	}
+
+	/**
+	 * Get the number of messages this process skipped because they were overwritten before it could read them.
+	 *
+	 * @return the number of lost messages
+	 */
+	public long getLostMessageCount() {
+		return lostMessages.sum();
+	}
+
+	/**
+	 * Encode the message and write it to the shared ring, waiting at most {@code timeout} milliseconds for the slowest
+	 * live reader to free its slot.
+	 *
+	 * @param message the message to send
+	 * @param timeout the timeout in milliseconds, {@code 0} to never block or a negative value to wait indefinitely
+	 * @return {@code true} if the message was written, {@code false} if it was rejected
+	 * @throws IllegalArgumentException if the encoded message does not fit in a slot
+	 */
+	@Override
+	public boolean send(Message<?> message, long timeout) {
+		long sequence = claimSequence(timeout);
+		if (sequence < 0) {
+			incrementRejectedSends();
+			return false;
+		}
+
+		long offset = slotOffset(sequence);
+		ring.writeOrderedLong(offset, -1L);
+		ByteBuffer slot = slotBuffer(offset);
+		// a length of -1 publishes the slot as holding no message, so that readers move past it whatever happens
+		int length = -1;
+		try {
+			length = codec.encode(message, slot);
+		} catch (BufferOverflowException e) {
+			throw new IllegalArgumentException("Encoded message exceeds the maximum of " + getMaxMessageSize() +
+					" bytes", e);
+		} finally {
+			ring.writeInt(offset + SLOT_LENGTH_INDEX, length);
+			ring.writeOrderedLong(offset, sequence + 1);
+		}
+		return true;
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		running = false;
+		reader.interrupt();
+		reader.join(TimeUnit.SECONDS.toMillis(5));
+		readerTask.deregister();
+		processor.onComplete();
+		shutdownLagTracking();
+		memory.release();
+		file.close();
+	}
+
+	@Override
+	protected Cancellation doSubscribe(MessageHandler handler) {
+		return subscribeHandler(processor, handler);
+	}
+
+	@Override
+	protected FluxProcessor<Message<?>, Message<?>> getProcessor(Message<?> message) {
+		return processor;
+	}
+
+	/**
+	 * Claim the next sequence of the ring once the slowest live reader has read the message it overwrites.
+	 *
+	 * @return the claimed sequence, or {@code -1} if the ring stayed full for the whole timeout
+	 */
+	private long claimSequence(long timeout) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		long backoff = MIN_BACKOFF_NANOS;
+		for (; ; ) {
+			long sequence = ring.readVolatileLong(CURSOR_OFFSET);
+			if (sequence - slowestRead >= slots) {
+				slowestRead = slowestReader(sequence);
+			}
+			if (sequence - slowestRead < slots) {
+				if (ring.compareAndSwapLong(CURSOR_OFFSET, sequence, sequence + 1)) {
+					return sequence;
+				}
+				continue;
+			}
+			if (timeout == 0 || (timeout > 0 && (System.nanoTime() - deadline >= 0 ||
+					Thread.currentThread().isInterrupted()))) {
+				return -1L;
+			}
+			LockSupport.parkNanos(timeout > 0 ? Math.min(backoff, deadline - System.nanoTime()) : backoff);
+			backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+		}
+	}
+
+	/**
+	 * Get the next sequence to read of the slowest reader holding a lease, or the given cursor if there is none.
+	 */
+	private long slowestReader(long cursor) {
+		long now = System.currentTimeMillis();
+		long slowest = cursor;
+		for (int i = 0; i < MAX_READERS; i++) {
+			long entry = READERS_OFFSET + i * READER_SIZE;
+			long lease = ring.readVolatileLong(entry + READER_LEASE_INDEX);
+			if (lease != 0 && now - lease < READER_LEASE_MILLIS) {
+				slowest = Math.min(slowest, ring.readVolatileLong(entry));
+			}
+		}
+		return slowest;
+	}
+
+	private long slotOffset(long sequence) {
+		return HEADER_SIZE + (sequence & mask) * slotSize;
+	}
+
+	private ByteBuffer slotBuffer(long offset) {
+		ByteBuffer buffer = memory.buffer().duplicate();
+		buffer.limit((int) offset + slotSize).position((int) offset + SLOT_HEADER_SIZE);
+		return buffer;
+	}
+
+	/**
+	 * Polls the ring from the current cursor, publishing every decoded message to the local processor. A slot is read
+	 * optimistically and discarded if the writer has reused it in the meantime. The reader registers its position in
+	 * the ring file, if an entry is free, so that senders wait for it.
+	 */
+	private final class RingReader implements Runnable {
+		private final NativeBytes bytes = new NativeBytes(ring);
+		private final long        idleNanos;
+		private final long        entry;
+
+		private long sequence;
+		private long lease;
+		private long unpublishedSince = -1L;
+
+		RingReader(long idleNanos) {
+			this.idleNanos = idleNanos;
+			this.entry = register();
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				renewLease();
+				long offset = slotOffset(sequence);
+				long published = bytes.readVolatileLong(offset);
+				if (published < sequence + 1) {
+					if (isAbandoned()) {
+						log.warn("Skipped a slot of the shared ring left unpublished for " + SLOT_WRITE_TIMEOUT_MILLIS +
+								" ms");
+						lostMessages.increment();
+						advance(sequence + 1);
+					} else {
+						LockSupport.parkNanos(idleNanos);
+					}
+					continue;
+				}
+				if (published > sequence + 1) {
+					skipOverwritten();
+					continue;
+				}
+				int length = bytes.readInt(offset + SLOT_LENGTH_INDEX);
+				Message<?> message = null;
+				Throwable error = null;
+				if (length >= 0 && length <= getMaxMessageSize()) {
+					ByteBuffer slot = slotBuffer(offset);
+					slot.limit(slot.position() + length);
+					try {
+						message = codec.decode(slot);
+					} catch (Throwable t) {
+						Exceptions.throwIfFatal(t);
+						error = t;
+					}
+				}
+				if (bytes.readVolatileLong(offset) != sequence + 1) {
+					skipOverwritten();
+					continue;
+				}
+				if (null != error) {
+					log.error("Failed to decode a message of " + length + " bytes from the shared ring", error);
+				} else if (null != message) {
+					processor.onNext(message);
+				}
+				advance(sequence + 1);
+			}
+		}
+
+		void deregister() {
+			if (entry >= 0) {
+				bytes.writeOrderedLong(entry + READER_LEASE_INDEX, 0L);
+			}
+		}
+
+		private long register() {
+			long now = System.currentTimeMillis();
+			for (int i = 0; i < MAX_READERS; i++) {
+				long candidate = READERS_OFFSET + i * READER_SIZE;
+				long previous = bytes.readVolatileLong(candidate + READER_LEASE_INDEX);
+				if ((previous == 0 || now - previous >= READER_LEASE_MILLIS) &&
+						bytes.compareAndSwapLong(candidate + READER_LEASE_INDEX, previous, now)) {
+					// until the starting position is written, senders see the previous reader's, which is behind it
+					sequence = bytes.readVolatileLong(CURSOR_OFFSET);
+					bytes.writeOrderedLong(candidate, sequence);
+					lease = now;
+					return candidate;
+				}
+			}
+			log.warn("The " + MAX_READERS + " reader entries of the shared ring are taken, senders will not wait " +
+					"for " + getBeanName());
+			sequence = bytes.readVolatileLong(CURSOR_OFFSET);
+			return -1L;
+		}
+
+		private void renewLease() {
+			if (entry < 0) {
+				return;
+			}
+			long now = System.currentTimeMillis();
+			if (now - lease >= HEARTBEAT_MILLIS) {
+				bytes.writeOrderedLong(entry + READER_LEASE_INDEX, now);
+				lease = now;
+			}
+		}
+
+		/**
+		 * Whether the next slot, not published yet, was claimed by a sender longer than {@value
+		 * #SLOT_WRITE_TIMEOUT_MILLIS} milliseconds ago.
+		 */
+		private boolean isAbandoned() {
+			if (bytes.readVolatileLong(CURSOR_OFFSET) <= sequence) {
+				// not claimed yet: there is simply no new message
+				unpublishedSince = -1L;
+				return false;
+			}
+			long now = System.currentTimeMillis();
+			if (unpublishedSince < 0) {
+				unpublishedSince = now;
+			}
+			return now - unpublishedSince >= SLOT_WRITE_TIMEOUT_MILLIS;
+		}
+
+		private void advance(long next) {
+			sequence = next;
+			unpublishedSince = -1L;
+			if (entry >= 0) {
+				bytes.writeOrderedLong(entry, next);
+			}
+		}
+
+		private void skipOverwritten() {
+			long oldest = bytes.readVolatileLong(CURSOR_OFFSET) - slots + 1;
+			if (oldest > sequence) {
+				lostMessages.add(oldest - sequence);
+				advance(oldest);
+			} else {
+				lostMessages.increment();
+				advance(sequence + 1);
+			}
+		}
+	}
+
+}
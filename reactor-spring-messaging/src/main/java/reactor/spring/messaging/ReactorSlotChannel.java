@@ -0,0 +1,236 @@
+package reactor.spring.messaging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.Cancellation;
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.TopicProcessor;
+import reactor.util.concurrent.QueueSupplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.util.Assert;
+
+/**
+ * Subscribable {@link org.springframework.messaging.MessageChannel} implementation with a Disruptor-style publication
+ * API: producers {@link #claim() claim} a preallocated {@link MessageSlot}, fill its payload and headers in place and
+ * {@link #publish(MessageSlot) publish} it, so that sending a message allocates nothing. A producer that fails to
+ * fill a claimed slot must {@link #release(MessageSlot) release} it, as the channel waits for it to come round.
+ * <p>Messages are published to a RingBuffer-based Reactor {@link TopicProcessor} drained by a single dispatcher
+ * thread fanning each message out to every handler. A slot is released once all handlers have returned, so handlers
+ * must not keep a reference to it. Handlers subscribed with an {@link java.util.concurrent.Executor} or as a {@link
+ * BatchMessageHandler} outlive the dispatch and receive an immutable copy instead. Regular messages can still be
+ * sent with {@link #send(Message)}.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorSlotChannel extends AbstractReactorSubscribableChannel implements DisposableBean {
+
+	/**
+	 * Default number of headers a {@link MessageSlot} can hold.
+	 */
+	public static final int DEFAULT_MAX_HEADERS = 8;
+
+	private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(1);
+	private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final TopicProcessor<Message<?>> processor;
+	private final MessageHandlerMultiplexer  multiplexer   = new MessageHandlerMultiplexer();
+	private final MessageSlot[]              slots;
+	private final int                        mask;
+	private final AtomicLong                 claimSequence = new AtomicLong();
+
+	/**
+	 * Create a multi-threaded producer channel with default settings.
+	 */
+	public ReactorSlotChannel() {
+		this(false, QueueSupplier.SMALL_BUFFER_SIZE, DEFAULT_MAX_HEADERS);
+	}
+
+	/**
+	 * Create a {@literal ReactorSlotChannel}.
+	 *
+	 * @param singleThreadedProducer whether to create a single-threaded producer or not
+	 * @param backlog                the number of slots, and the size of the {@code RingBuffer}, as a power of 2
+	 * @param maxHeaders             the number of headers a slot can hold
+	 */
+	public ReactorSlotChannel(boolean singleThreadedProducer, int backlog, int maxHeaders) {
+		Assert.isTrue(backlog > 0 && Integer.bitCount(backlog) == 1, "Backlog must be a power of 2");
+		Assert.isTrue(maxHeaders >= 0, "The number of headers cannot be negative");
+		this.slots = new MessageSlot[backlog];
+		for (int i = 0; i < backlog; i++) {
+			this.slots[i] = new MessageSlot(this, maxHeaders);
+		}
+		this.mask = backlog - 1;
+
+		if (singleThreadedProducer) {
+			this.processor = TopicProcessor.create(getBeanName(), backlog);
+		} else {
+			this.processor = TopicProcessor.share(getBeanName(), backlog);
+		}
+		this.processor.subscribe(new SlotDispatcher());
+	}
+
+	/**
+	 * Claim the next {@link MessageSlot}, waiting for it to be released if needed.
+	 *
+	 * @return the claimed slot, to be filled and passed to {@link #publish(MessageSlot)}
+	 */
+	public MessageSlot claim() {
+		return claim(INDEFINITE_TIMEOUT);
+	}
+
+	/**
+	 * Claim the next {@link MessageSlot}, waiting at most {@code timeout} milliseconds for it to be released. The
+	 * claim sequence only moves on once a slot is claimed, so a claim that times out does not skip a slot.
+	 * <p>A claim that never blocks is best-effort under contention: it retries as long as other producers move the claim
+	 * sequence on, but may still return {@code null} while another producer is halfway through claiming the last free
+	 * slot.</p>
+	 *
+	 * @param timeout the timeout in milliseconds, {@code 0} to never block or a negative value to wait indefinitely
+	 * @return the claimed slot, or {@code null} if it was not released in time
+	 */
+	public MessageSlot claim(long timeout) {
+		MessageSlot slot = tryClaim();
+		if (null != slot || timeout == 0) {
+			return slot;
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		long backoff = MIN_BACKOFF_NANOS;
+		while (!Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(timeout > 0 ? Math.min(backoff, deadline - System.nanoTime()) : backoff);
+			backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+			if (null != (slot = tryClaim())) {
+				return slot;
+			}
+			if (timeout > 0 && System.nanoTime() - deadline >= 0) {
+				break;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Give up a claimed {@link MessageSlot} without publishing it, for instance because filling it failed, so that it
+	 * can be claimed again.
+	 *
+	 * @param slot a slot claimed from this channel and not published
+	 */
+	public void release(MessageSlot slot) {
+		Assert.isTrue(slot.isOwnedBy(this), "The message slot was not claimed from this channel");
+		Assert.state(slot.state.get() == MessageSlot.CLAIMED, "The message slot has not been claimed");
+		slot.reset();
+		slot.state.set(MessageSlot.FREE);
+	}
+
+	/**
+	 * Publish a claimed {@link MessageSlot} to the handlers of this channel.
+	 *
+	 * @param slot a slot claimed from this channel, with its payload set
+	 */
+	public void publish(MessageSlot slot) {
+		Assert.isTrue(slot.isOwnedBy(this), "The message slot was not claimed from this channel");
+		Assert.state(slot.state.compareAndSet(MessageSlot.CLAIMED, MessageSlot.PUBLISHED),
+				"The message slot has not been claimed");
+		Assert.state(null != slot.getPayload(), "The message slot has no payload");
+		publish(processor, slot, INDEFINITE_TIMEOUT);
+	}
+
+	@Override
+	public void destroy() {
+		processor.onComplete();
+		shutdownLagTracking();
+	}
+
+	@Override
+	protected Cancellation doSubscribe(MessageHandler handler) {
+		final MessageHandler target;
+		if (outlivesDispatch(handler)) {
+			target = message -> handler.handleMessage(message instanceof MessageSlot ?
+					copyOf((MessageSlot) message) : message);
+		} else {
+			target = handler;
+		}
+		multiplexer.add(target);
+		return () -> multiplexer.remove(target);
+	}
+
+	@Override
+	protected FluxProcessor<Message<?>, Message<?>> getProcessor(Message<?> message) {
+		return processor;
+	}
+
+	/**
+	 * Create an immutable copy of a slot for a handler that outlives the dispatch.
+	 *
+	 * @param slot the slot being dispatched
+	 * @return a copy of the slot
+	 */
+	protected Message<?> copyOf(MessageSlot slot) {
+		return slot.toMessage();
+	}
+
+	private MessageSlot tryClaim() {
+		for (; ; ) {
+			long sequence = claimSequence.get();
+			MessageSlot slot = slots[(int) (sequence & mask)];
+			if (!slot.state.compareAndSet(MessageSlot.FREE, MessageSlot.CLAIMED)) {
+				// another producer may have claimed the slot meanwhile, in which case the next one may be free
+				if (claimSequence.get() != sequence) {
+					continue;
+				}
+				return null;
+			}
+			if (claimSequence.compareAndSet(sequence, sequence + 1)) {
+				return slot;
+			}
+			// the sequence moved on since it was read, so the slot may belong to another lap: give it back
+			slot.state.set(MessageSlot.FREE);
+		}
+	}
+
+	MessageSlot[] slots() {
+		return slots;
+	}
+
+	/**
+	 * Whether the given handler may still use a message after returning, and so needs a copy of a slot.
+	 */
+	static boolean outlivesDispatch(MessageHandler handler) {
+		return (handler instanceof ExecutorMessageHandler || handler instanceof BatchingMessageHandler ||
+				handler instanceof LagTrackingMessageHandler);
+	}
+
+	private final class SlotDispatcher implements Subscriber<Message<?>> {
+		@Override
+		public void onSubscribe(Subscription s) {
+			s.request(Long.MAX_VALUE);
+		}
+
+		@Override
+		public void onNext(Message<?> message) {
+			multiplexer.dispatch(message);
+			if (message instanceof MessageSlot && ((MessageSlot) message).isOwnedBy(ReactorSlotChannel.this)) {
+				MessageSlot slot = (MessageSlot) message;
+				slot.reset();
+				slot.state.set(MessageSlot.FREE);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			log.error("", t);
+		}
+
+		@Override
+		public void onComplete() {
+			log.trace("Message slot dispatcher has shutdown");
+		}
+	}
+
+}
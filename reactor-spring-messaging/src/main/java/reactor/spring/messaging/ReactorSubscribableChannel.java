@@ -1,37 +1,56 @@
 package reactor.spring.messaging;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Consumer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
 
-import org.reactivestreams.Processor;
+import org.reactivestreams.Publisher;
 import reactor.core.Cancellation;
-import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxProcessor;
 import reactor.core.publisher.TopicProcessor;
+import reactor.core.publisher.WorkQueueProcessor;
 
-import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.messaging.Message;
-import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.MessageHandler;
-import org.springframework.messaging.SubscribableChannel;
-import org.springframework.util.ObjectUtils;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.InterceptableChannel;
+import org.springframework.util.Assert;
 
 /**
  * Subscribable {@link org.springframework.messaging.MessageChannel} implementation that uses the RinBuffer-based
  * Reactor {@link reactor.core.publisher.TopicProcessor} to publish messages for efficiency at high volumes.
+ * <p>By default every subscribed {@link MessageHandler} gets its own subscriber, and so its own thread, on the
+ * processor. A channel created with a number of dispatcher threads instead multiplexes all handlers: each message is
+ * received once and fanned out to every handler from a copy-on-write array, so the number of threads no longer grows
+ * with the number of handlers. Handlers subscribed with an {@link Executor} are offloaded to it.</p>
+ * <p>{@link ChannelInterceptor}s are kept as an array, replaced as a whole when they change, so that sending reads the
+ * chain without locking and without allocating unless an interceptor does. {@link ExecutorChannelInterceptor}s also
+ * run around each handler on the thread handling the message, be it a dispatcher, the handler's {@link Executor} or
+ * its own thread when its lag is tracked. Batch handlers and {@link #asPublisher() Publisher} subscribers bypass the
+ * handling interceptors.</p>
+ * <p>Destroying the channel completes its processor, which stops its dispatcher threads.</p>
  *
  * @author Jon Brisbin
  * @author Stephane Maldini
  */
-public class ReactorSubscribableChannel implements BeanNameAware, MessageChannel, SubscribableChannel {
+public class ReactorSubscribableChannel extends AbstractReactorSubscribableChannel implements InterceptableChannel,
+                                                                                            DisposableBean {
 
-	private final Map<MessageHandler, Cancellation>
-			messageHandlerConsumers =
-			new ConcurrentHashMap<>();
+	private static final ChannelInterceptor[]         NO_INTERCEPTORS          = new ChannelInterceptor[0];
+	private static final ExecutorChannelInterceptor[] NO_EXECUTOR_INTERCEPTORS = new ExecutorChannelInterceptor[0];
 
-	private final Processor<Message<?>, Message<?>> processor;
+	private final FluxProcessor<Message<?>, Message<?>> processor;
+	private final MessageHandlerMultiplexer            multiplexer;
+	private final Object                               interceptorMonitor = new Object();
 
-	private String beanName;
+	private volatile ChannelInterceptor[]         interceptors         = NO_INTERCEPTORS;
+	private volatile ExecutorChannelInterceptor[] executorInterceptors = NO_EXECUTOR_INTERCEPTORS;
 
 	/**
 	 * Create a default multi-threaded producer channel.
@@ -47,52 +66,195 @@ public class ReactorSubscribableChannel implements BeanNameAware, MessageChannel
 	 * @param singleThreadedProducer whether to create a single-threaded producer or not
 	 */
 	public ReactorSubscribableChannel(boolean singleThreadedProducer) {
-		this.beanName = String.format("%s@%s", getClass().getSimpleName(), ObjectUtils.getIdentityHexString(this));
-		if (singleThreadedProducer) {
+		this(singleThreadedProducer, 0);
+	}
+
+	/**
+	 * Create a {@literal ReactorSubscribableChannel} fanning messages out to its handlers from the given number of
+	 * dispatcher threads. With more than one dispatcher thread, messages are spread across threads and a handler may
+	 * see them concurrently and out of order.
+	 *
+	 * @param singleThreadedProducer whether to create a single-threaded producer or not
+	 * @param dispatcherThreads      the number of threads dispatching to all handlers, or {@code 0} to give each
+	 *                               handler its own subscriber
+	 */
+	public ReactorSubscribableChannel(boolean singleThreadedProducer, int dispatcherThreads) {
+		Assert.isTrue(dispatcherThreads >= 0, "The number of dispatcher threads cannot be negative");
+		if (dispatcherThreads > 1) {
+			this.processor = (singleThreadedProducer ? WorkQueueProcessor.create(false) : WorkQueueProcessor.share(false));
+		} else if (singleThreadedProducer) {
 			this.processor = TopicProcessor.create();
 		} else {
-			this.processor = TopicProcessor.share();
+			this.processor = TopicProcessor.share(true);
+		}
+
+		if (dispatcherThreads > 0) {
+			this.multiplexer = new MessageHandlerMultiplexer();
+			for (int i = 0; i < dispatcherThreads; i++) {
+				processor.subscribe(multiplexer.newDispatcher());
+			}
+		} else {
+			this.multiplexer = null;
 		}
 	}
 
+	/**
+	 * Get a {@link Publisher} view of this channel whose subscribers receive every message sent from the time they
+	 * subscribe, honouring the demand they signal with {@code request(n)}. Like a {@link MessageHandler}, a subscriber
+	 * which does not request more messages eventually fills the {@code RingBuffer} and holds back the senders.
+	 *
+	 * @return a {@link Publisher} of the messages sent to this channel
+	 * @throws IllegalStateException if the channel dispatches from several threads, which share the messages between
+	 *                               them rather than each receiving all of them
+	 */
+	public Publisher<Message<?>> asPublisher() {
+		Assert.state(processor instanceof TopicProcessor,
+				"A channel dispatching from several threads cannot be subscribed to as a Publisher");
+		return processor.hide();
+	}
+
 	@Override
-	public void setBeanName(String beanName) {
-		this.beanName = beanName;
+	public void setInterceptors(List<ChannelInterceptor> interceptors) {
+		synchronized (interceptorMonitor) {
+			updateInterceptors(new ArrayList<>(interceptors));
+		}
 	}
 
-	public String getBeanName() {
-		return beanName;
+	@Override
+	public void addInterceptor(ChannelInterceptor interceptor) {
+		synchronized (interceptorMonitor) {
+			List<ChannelInterceptor> chain = new ArrayList<>(Arrays.asList(interceptors));
+			chain.add(interceptor);
+			updateInterceptors(chain);
+		}
 	}
 
 	@Override
-	public boolean subscribe(final MessageHandler handler) {
-		Consumer<Message<?>> consumer = handler::handleMessage;
-		Cancellation c = Flux.from(processor).subscribe(consumer);
-		messageHandlerConsumers.put(handler, c);
+	public void addInterceptor(int index, ChannelInterceptor interceptor) {
+		synchronized (interceptorMonitor) {
+			List<ChannelInterceptor> chain = new ArrayList<>(Arrays.asList(interceptors));
+			chain.add(index, interceptor);
+			updateInterceptors(chain);
+		}
+	}
 
-		return true;
+	@Override
+	public List<ChannelInterceptor> getInterceptors() {
+		return Collections.unmodifiableList(Arrays.asList(interceptors));
 	}
 
-	@SuppressWarnings("unchecked")
 	@Override
-	public boolean unsubscribe(MessageHandler handler) {
-		Cancellation control = messageHandlerConsumers.remove(handler);
-		if (null == control) {
-			return false;
+	public boolean removeInterceptor(ChannelInterceptor interceptor) {
+		synchronized (interceptorMonitor) {
+			List<ChannelInterceptor> chain = new ArrayList<>(Arrays.asList(interceptors));
+			boolean removed = chain.remove(interceptor);
+			updateInterceptors(chain);
+			return removed;
 		}
-		control.dispose();
-		return true;
 	}
 
 	@Override
-	public boolean send(Message<?> message) {
-		return send(message, 0);
+	public ChannelInterceptor removeInterceptor(int index) {
+		synchronized (interceptorMonitor) {
+			List<ChannelInterceptor> chain = new ArrayList<>(Arrays.asList(interceptors));
+			ChannelInterceptor removed = chain.remove(index);
+			updateInterceptors(chain);
+			return removed;
+		}
 	}
 
+	@Override
+	public void destroy() {
+		processor.onComplete();
+		shutdownLagTracking();
+	}
+
+	/**
+	 * Send a message through the {@link ChannelInterceptor}s, with the semantics of Spring's {@code
+	 * AbstractMessageChannel}: an interceptor returning {@code null} from {@code preSend} stops the message, and {@code
+	 * afterSendCompletion} is called in reverse order on every interceptor whose {@code preSend} completed.
+	 *
+	 * @param message the message to send
+	 * @param timeout the timeout in milliseconds, {@code 0} to never block or a negative value to wait indefinitely
+	 * @return {@code true} if the message was published, {@code false} if it was rejected or stopped
+	 */
 	@Override
 	public boolean send(Message<?> message, long timeout) {
-		processor.onNext(message);
-		return true;
+		ChannelInterceptor[] chain = interceptors;
+		if (chain.length == 0) {
+			return super.send(message, timeout);
+		}
+		Message<?> current = message;
+		int applied = 0;
+		boolean sent = false;
+		try {
+			for (; applied < chain.length; applied++) {
+				Message<?> intercepted = chain[applied].preSend(current, this);
+				if (null == intercepted) {
+					afterSendCompletion(chain, applied, current, false, null);
+					return false;
+				}
+				current = intercepted;
+			}
+			sent = super.send(current, timeout);
+			for (ChannelInterceptor interceptor : chain) {
+				interceptor.postSend(current, this, sent);
+			}
+			afterSendCompletion(chain, applied, current, sent, null);
+			return sent;
+		} catch (Exception e) {
+			afterSendCompletion(chain, applied, current, sent, e);
+			if (e instanceof MessagingException) {
+				throw (MessagingException) e;
+			}
+			throw new MessageDeliveryException(current, "Failed to send message to " + getBeanName(), e);
+		} catch (Error e) {
+			afterSendCompletion(chain, applied, current, sent,
+					new MessageDeliveryException(current, "Failed to send message to " + getBeanName(), e));
+			throw e;
+		}
+	}
+
+	@Override
+	protected MessageHandler decorateHandler(MessageHandler handler) {
+		return new InterceptingMessageHandler(handler, this, () -> executorInterceptors);
+	}
+
+	@Override
+	protected Cancellation doSubscribe(final MessageHandler handler) {
+		if (null == multiplexer) {
+			return subscribeHandler(processor, handler);
+		}
+		multiplexer.add(handler);
+		return () -> multiplexer.remove(handler);
+	}
+
+	@Override
+	protected FluxProcessor<Message<?>, Message<?>> getProcessor(Message<?> message) {
+		return processor;
+	}
+
+	private void updateInterceptors(List<ChannelInterceptor> chain) {
+		List<ExecutorChannelInterceptor> executorChain = new ArrayList<>();
+		for (ChannelInterceptor interceptor : chain) {
+			Assert.notNull(interceptor, "Interceptor cannot be null");
+			if (interceptor instanceof ExecutorChannelInterceptor) {
+				executorChain.add((ExecutorChannelInterceptor) interceptor);
+			}
+		}
+		this.executorInterceptors = executorChain.toArray(NO_EXECUTOR_INTERCEPTORS);
+		this.interceptors = chain.toArray(NO_INTERCEPTORS);
+	}
+
+	private void afterSendCompletion(ChannelInterceptor[] chain, int applied, Message<?> message, boolean sent,
+	                                 Exception ex) {
+		for (int i = applied - 1; i >= 0; i--) {
+			try {
+				chain[i].afterSendCompletion(message, this, sent, ex);
+			} catch (Throwable t) {
+				log.error("Exception from afterSendCompletion in " + chain[i], t);
+			}
+		}
 	}
 
 }
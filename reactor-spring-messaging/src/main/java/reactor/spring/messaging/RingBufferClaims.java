@@ -0,0 +1,134 @@
+package reactor.spring.messaging;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import reactor.core.publisher.FluxProcessor;
+import reactor.core.publisher.TopicProcessor;
+import reactor.core.publisher.WorkQueueProcessor;
+
+import org.springframework.messaging.Message;
+
+/**
+ * Claims a slot in the {@code RingBuffer} of a processor before a message is published to it, so that a send with a
+ * timeout never blocks in {@link FluxProcessor#onNext(Object)}. Claims are counted until their message reaches the
+ * processor, so that concurrent producers cannot both count on the same free slot; every producer publishing to the
+ * processor must therefore claim first.
+ * <p>Waiting for a slot backs off from yielding to parking up to {@value #MAX_BACKOFF_MICROS} microseconds at a time,
+ * rather than spinning for the whole timeout.</p>
+ *
+ * @author Stephane Maldini
+ */
+final class RingBufferClaims {
+
+	private static final int  YIELD_ATTEMPTS     = 16;
+	private static final long MIN_BACKOFF_NANOS  = TimeUnit.MICROSECONDS.toNanos(1);
+	private static final long MAX_BACKOFF_MICROS = 1000;
+	private static final long MAX_BACKOFF_NANOS  = TimeUnit.MICROSECONDS.toNanos(MAX_BACKOFF_MICROS);
+
+	private final FluxProcessor<Message<?>, Message<?>> processor;
+	private final AtomicLong                            pendingClaims = new AtomicLong();
+
+	RingBufferClaims(FluxProcessor<Message<?>, Message<?>> processor) {
+		this.processor = processor;
+	}
+
+	/**
+	 * Get the number of free slots in a processor's {@code RingBuffer}.
+	 *
+	 * @param processor a {@link TopicProcessor} or a {@link WorkQueueProcessor}
+	 * @return the available capacity, or {@link Long#MAX_VALUE} for other processors
+	 */
+	static long getAvailableCapacity(FluxProcessor<Message<?>, Message<?>> processor) {
+		if (processor instanceof WorkQueueProcessor) {
+			return ((WorkQueueProcessor<Message<?>>) processor).getAvailableCapacity();
+		}
+		if (processor instanceof TopicProcessor) {
+			return ((TopicProcessor<Message<?>>) processor).getAvailableCapacity();
+		}
+		return Long.MAX_VALUE;
+	}
+
+	/**
+	 * Claim a slot, waiting at most {@code timeout} milliseconds for one to be free. A claim without timeout only
+	 * returns once it succeeds, like a publication to the {@code RingBuffer} would, and preserves the interrupt status
+	 * of the thread.
+	 *
+	 * @param timeout the timeout in milliseconds, {@code 0} to never block or a negative value to wait indefinitely
+	 * @return {@code true} if a slot was claimed and must be passed to {@link #publish(Message)} or {@link #release()}
+	 */
+	boolean claim(long timeout) {
+		if (tryClaim()) {
+			return true;
+		}
+		if (timeout == 0) {
+			return false;
+		}
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		boolean interrupted = false;
+		try {
+			long backoff = MIN_BACKOFF_NANOS;
+			for (int attempt = 0; ; attempt++) {
+				if (attempt < YIELD_ATTEMPTS) {
+					Thread.yield();
+				} else {
+					long wait = (timeout > 0 ? Math.min(backoff, deadline - System.nanoTime()) : backoff);
+					LockSupport.parkNanos(wait);
+					backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+				}
+				if (tryClaim()) {
+					return true;
+				}
+				if (Thread.interrupted()) {
+					interrupted = true;
+					if (timeout > 0) {
+						return false;
+					}
+				}
+				if (timeout > 0 && System.nanoTime() - deadline >= 0) {
+					return false;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Publish a message to the processor in the slot claimed for it.
+	 *
+	 * @param message the message
+	 */
+	void publish(Message<?> message) {
+		try {
+			processor.onNext(message);
+		} finally {
+			pendingClaims.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Give up a claimed slot without publishing to it.
+	 */
+	void release() {
+		pendingClaims.decrementAndGet();
+	}
+
+	private boolean tryClaim() {
+		for (; ; ) {
+			// reading the claims first errs on the side of caution: a claim published in between has already taken
+			// its slot off the capacity read afterwards, and is counted twice
+			long claims = pendingClaims.get();
+			if (getAvailableCapacity(processor) - claims <= 0) {
+				return false;
+			}
+			if (pendingClaims.compareAndSet(claims, claims + 1)) {
+				return true;
+			}
+		}
+	}
+
+}
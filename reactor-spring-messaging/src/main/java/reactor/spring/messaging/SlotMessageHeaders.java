@@ -0,0 +1,91 @@
+package reactor.spring.messaging;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * Flyweight {@link MessageHeaders} reading the header arrays of a {@link MessageSlot} in place. Lookups do not
+ * allocate; only the collection views create a snapshot of the current headers.
+ *
+ * @author Stephane Maldini
+ */
+@SuppressWarnings("serial")
+final class SlotMessageHeaders extends MessageHeaders {
+
+	private final transient MessageSlot slot;
+
+	SlotMessageHeaders(MessageSlot slot) {
+		super(Collections.<String, Object>emptyMap(), ID_VALUE_NONE, -1L);
+		this.slot = slot;
+	}
+
+	@Override
+	public Object get(Object key) {
+		return slot.headerValue(key);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return slot.indexOf(key) >= 0;
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return slot.headerMap().containsValue(value);
+	}
+
+	@Override
+	public int size() {
+		return slot.headerCount();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return slot.headerCount() == 0;
+	}
+
+	@Override
+	public Set<String> keySet() {
+		return Collections.unmodifiableSet(slot.headerMap().keySet());
+	}
+
+	@Override
+	public Collection<Object> values() {
+		return Collections.unmodifiableCollection(slot.headerMap().values());
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		return Collections.unmodifiableMap(slot.headerMap()).entrySet();
+	}
+
+	@Override
+	protected Map<String, Object> getRawHeaders() {
+		return slot.headerMap();
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return (this == other ||
+				(other instanceof MessageHeaders && slot.headerMap().equals(other)));
+	}
+
+	@Override
+	public int hashCode() {
+		return slot.headerMap().hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return slot.headerMap().toString();
+	}
+
+	private Object writeReplace() {
+		return new MessageHeaders(slot.headerMap());
+	}
+
+}
@@ -0,0 +1,22 @@
+package reactor.spring.messaging;
+
+/**
+ * Policy applied by a channel to a {@link org.springframework.messaging.MessageHandler} whose lag, the number of
+ * messages sent to it but not handled yet, crosses the lag threshold of the channel.
+ *
+ * @author Stephane Maldini
+ * @see AbstractReactorSubscribableChannel#setLagThreshold(int)
+ */
+public enum SlowHandlerPolicy {
+
+	/**
+	 * Keep queueing messages for the handler in an overflow buffer, and evict it if the overflow buffer fills up too.
+	 */
+	BUFFER,
+
+	/**
+	 * Evict the handler as soon as its lag crosses the threshold.
+	 */
+	EVICT
+
+}
@@ -0,0 +1,17 @@
+package reactor.spring.messaging.codec;
+
+import org.springframework.messaging.MessagingException;
+
+/**
+ * Exception thrown when a {@link MessageCodec} fails to encode or decode a message.
+ *
+ * @author Stephane Maldini
+ */
+@SuppressWarnings("serial")
+public class CodecException extends MessagingException {
+
+	public CodecException(String description, Throwable cause) {
+		super(description, cause);
+	}
+
+}
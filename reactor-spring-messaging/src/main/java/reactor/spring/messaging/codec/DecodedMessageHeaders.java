@@ -0,0 +1,20 @@
+package reactor.spring.messaging.codec;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.messaging.MessageHeaders;
+
+/**
+ * {@link MessageHeaders} restoring the id and timestamp of a decoded message rather than generating new ones.
+ *
+ * @author Stephane Maldini
+ */
+@SuppressWarnings("serial")
+final class DecodedMessageHeaders extends MessageHeaders {
+
+	DecodedMessageHeaders(Map<String, Object> headers, UUID id, Long timestamp) {
+		super(headers, (null != id ? id : ID_VALUE_NONE), (null != timestamp ? timestamp : -1L));
+	}
+
+}
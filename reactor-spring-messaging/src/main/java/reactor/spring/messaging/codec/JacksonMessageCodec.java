@@ -0,0 +1,206 @@
+package reactor.spring.messaging.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link MessageCodec} encoding messages as JSON documents with a Jackson {@link ObjectMapper}, streaming straight to
+ * and from {@link ByteBuffer}s.
+ * <p>The payload is written along with its class name so that it is decoded to the same type. Header values are
+ * written as plain JSON values and decoded as the matching JSON types, so headers should be strings, numbers,
+ * booleans or collections of those. The message id and timestamp are preserved.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class JacksonMessageCodec implements MessageCodec {
+
+	private static final String HEADERS      = "headers";
+	private static final String PAYLOAD_TYPE = "payloadType";
+	private static final String PAYLOAD      = "payload";
+
+	private final ObjectMapper mapper;
+	private final ClassLoader  classLoader;
+
+	public JacksonMessageCodec() {
+		this(new ObjectMapper());
+	}
+
+	/**
+	 * Create a codec using the given {@link ObjectMapper}.
+	 *
+	 * @param mapper the {@link ObjectMapper} to use
+	 */
+	public JacksonMessageCodec(ObjectMapper mapper) {
+		Assert.notNull(mapper, "ObjectMapper cannot be null");
+		this.mapper = mapper;
+		this.classLoader = ClassUtils.getDefaultClassLoader();
+	}
+
+	@Override
+	public byte[] encode(Message<?> message) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		write(message, bytes);
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public Message<?> decode(byte[] bytes) {
+		try (JsonParser parser = mapper.getFactory().createParser(bytes)) {
+			return read(parser);
+		} catch (IOException e) {
+			throw new CodecException("Failed to decode message", e);
+		}
+	}
+
+	@Override
+	public int encode(Message<?> message, ByteBuffer buffer) {
+		int start = buffer.position();
+		write(message, new ByteBufferOutputStream(buffer));
+		return buffer.position() - start;
+	}
+
+	@Override
+	public Message<?> decode(ByteBuffer buffer) {
+		try (JsonParser parser = (buffer.hasArray() ?
+				mapper.getFactory().createParser(buffer.array(), buffer.arrayOffset() + buffer.position(),
+						buffer.remaining()) :
+				mapper.getFactory().createParser(new ByteBufferInputStream(buffer)))) {
+			Message<?> message = read(parser);
+			buffer.position(buffer.limit());
+			return message;
+		} catch (IOException e) {
+			throw new CodecException("Failed to decode message", e);
+		}
+	}
+
+	private void write(Message<?> message, OutputStream out) {
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+			generator.writeStartObject();
+			generator.writeObjectFieldStart(HEADERS);
+			for (Map.Entry<String, Object> header : message.getHeaders().entrySet()) {
+				generator.writeFieldName(header.getKey());
+				if (MessageHeaders.ID.equals(header.getKey())) {
+					generator.writeString(header.getValue().toString());
+				} else {
+					mapper.writeValue(generator, header.getValue());
+				}
+			}
+			generator.writeEndObject();
+			generator.writeStringField(PAYLOAD_TYPE, message.getPayload().getClass().getName());
+			generator.writeFieldName(PAYLOAD);
+			mapper.writeValue(generator, message.getPayload());
+			generator.writeEndObject();
+		} catch (IOException e) {
+			throw new CodecException("Failed to encode " + message, e);
+		}
+	}
+
+	private Message<?> read(JsonParser parser) throws IOException {
+		Map<String, Object> headers = null;
+		Class<?> payloadType = null;
+		Object payload = null;
+
+		expect(parser.nextToken(), JsonToken.START_OBJECT);
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String field = parser.getCurrentName();
+			parser.nextToken();
+			if (HEADERS.equals(field)) {
+				headers = readHeaders(parser);
+			} else if (PAYLOAD_TYPE.equals(field)) {
+				try {
+					payloadType = ClassUtils.forName(parser.getText(), classLoader);
+				} catch (ClassNotFoundException e) {
+					throw new CodecException("Unknown payload type " + parser.getText(), e);
+				}
+			} else if (PAYLOAD.equals(field)) {
+				Assert.state(null != payloadType, "The payload type must precede the payload");
+				payload = mapper.readValue(parser, payloadType);
+			} else {
+				parser.skipChildren();
+			}
+		}
+		Assert.state(null != headers && null != payload, "Incomplete message document");
+
+		Object id = headers.remove(MessageHeaders.ID);
+		Object timestamp = headers.remove(MessageHeaders.TIMESTAMP);
+		return new GenericMessage<>(payload, new DecodedMessageHeaders(headers,
+				(null != id ? UUID.fromString(id.toString()) : null),
+				(null != timestamp ? ((Number) timestamp).longValue() : null)));
+	}
+
+	private Map<String, Object> readHeaders(JsonParser parser) throws IOException {
+		expect(parser.getCurrentToken(), JsonToken.START_OBJECT);
+		Map<String, Object> headers = new HashMap<>();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.getCurrentName();
+			parser.nextToken();
+			headers.put(name, mapper.readValue(parser, Object.class));
+		}
+		return headers;
+	}
+
+	private static void expect(JsonToken actual, JsonToken expected) {
+		if (actual != expected) {
+			throw new CodecException("Expected " + expected + " but found " + actual, null);
+		}
+	}
+
+	private static final class ByteBufferOutputStream extends OutputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferOutputStream(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void write(int b) {
+			buffer.put((byte) b);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			buffer.put(bytes, offset, length);
+		}
+	}
+
+	private static final class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buffer;
+
+		ByteBufferInputStream(ByteBuffer buffer) {
+			this.buffer = buffer.duplicate();
+		}
+
+		@Override
+		public int read() {
+			return (buffer.hasRemaining() ? buffer.get() & 0xff : -1);
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+			int read = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, read);
+			return read;
+		}
+	}
+
+}
@@ -0,0 +1,149 @@
+package reactor.spring.messaging.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link MessageCodec} using standard Java serialization. The payload must be {@link java.io.Serializable}, while
+ * headers whose values are not are dropped by {@link org.springframework.messaging.MessageHeaders}. The message id
+ * and timestamp are preserved.
+ * <p>Deserializing bytes from an untrusted source with Java serialization can run arbitrary code, so such bytes must
+ * only be decoded by a codec {@link #JdkSerializationMessageCodec(ClassLoader, Collection) restricted} to the classes
+ * the messages are expected to hold.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class JdkSerializationMessageCodec implements MessageCodec {
+
+	// classes of the message itself, always allowed
+	private static final Set<String> MESSAGE_CLASSES = new HashSet<>(Arrays.asList(
+			GenericMessage.class.getName(), MessageHeaders.class.getName(), HashMap.class.getName(),
+			UUID.class.getName(), Long.class.getName(), Number.class.getName()));
+
+	private final ClassLoader        classLoader;
+	private final Collection<String> allowedClasses;
+
+	public JdkSerializationMessageCodec() {
+		this(ClassUtils.getDefaultClassLoader());
+	}
+
+	/**
+	 * Create a codec resolving classes with the given {@link ClassLoader}.
+	 *
+	 * @param classLoader the {@link ClassLoader} to use when decoding
+	 */
+	public JdkSerializationMessageCodec(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+		this.allowedClasses = null;
+	}
+
+	/**
+	 * Create a codec resolving classes with the given {@link ClassLoader} and only deserializing the given classes,
+	 * besides the ones of the message itself, so that decoding bytes holding any other class fails.
+	 *
+	 * @param classLoader    the {@link ClassLoader} to use when decoding
+	 * @param allowedClasses the fully qualified names of the payload and header classes to deserialize, or packages
+	 *                       such as {@code "com.example."} whose classes are all deserialized
+	 */
+	public JdkSerializationMessageCodec(ClassLoader classLoader, Collection<String> allowedClasses) {
+		Assert.notNull(allowedClasses, "Allowed classes cannot be null");
+		this.classLoader = classLoader;
+		this.allowedClasses = Collections.unmodifiableList(new ArrayList<>(allowedClasses));
+	}
+
+	@Override
+	public byte[] encode(Message<?> message) {
+		Message<?> serializable = (message instanceof GenericMessage ?
+				message :
+				new GenericMessage<>(message.getPayload(), message.getHeaders()));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(serializable);
+		} catch (IOException e) {
+			throw new CodecException("Failed to serialize " + message, e);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Override
+	public Message<?> decode(byte[] bytes) {
+		try (ObjectInputStream in = new RestrictedObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (Message<?>) in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new CodecException("Failed to deserialize message", e);
+		}
+	}
+
+	private boolean isAllowed(String className) {
+		if (null == allowedClasses) {
+			return true;
+		}
+		String name = className;
+		while (name.startsWith("[")) {
+			name = name.substring(1);
+		}
+		if (name.length() == 1) {
+			// array of primitives
+			return true;
+		}
+		if (name.startsWith("L") && name.endsWith(";")) {
+			name = name.substring(1, name.length() - 1);
+		}
+		if (MESSAGE_CLASSES.contains(name)) {
+			return true;
+		}
+		for (String allowed : allowedClasses) {
+			if (allowed.endsWith(".") ? name.startsWith(allowed) : name.equals(allowed)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private final class RestrictedObjectInputStream extends ConfigurableObjectInputStream {
+
+		RestrictedObjectInputStream(InputStream in) throws IOException {
+			super(in, classLoader);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass classDesc) throws IOException, ClassNotFoundException {
+			if (!isAllowed(classDesc.getName())) {
+				throw new InvalidClassException(classDesc.getName(), "Class is not allowed to be deserialized");
+			}
+			return super.resolveClass(classDesc);
+		}
+
+		@Override
+		protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+			for (String name : interfaces) {
+				if (!isAllowed(name)) {
+					throw new InvalidClassException(name, "Class is not allowed to be deserialized");
+				}
+			}
+			return super.resolveProxyClass(interfaces);
+		}
+	}
+
+}
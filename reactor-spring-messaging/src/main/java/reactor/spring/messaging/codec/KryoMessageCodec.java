@@ -0,0 +1,217 @@
+package reactor.spring.messaging.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.io.ByteBufferInput;
+import com.esotericsoftware.kryo.io.ByteBufferOutput;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.util.Assert;
+
+/**
+ * {@link MessageCodec} using <a href="https://github.com/EsotericSoftware/kryo">Kryo</a>, writing straight to and
+ * reading straight from {@link ByteBuffer}s, including direct ones.
+ * <p>{@link Kryo} instances are not thread-safe and expensive to create, so they are pooled together with their
+ * input and output buffers. The given types are registered with every instance, in order, so that they are written
+ * as a small id rather than their class name; every process exchanging messages must register the same types in
+ * the same order. The message id and timestamp are preserved.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class KryoMessageCodec implements MessageCodec {
+
+	/**
+	 * Default number of {@link Kryo} instances kept in the pool.
+	 */
+	public static final int DEFAULT_POOL_SIZE = 16;
+
+	private static final int        INITIAL_BUFFER_SIZE = 256;
+	private static final ByteBuffer EMPTY               = ByteBuffer.allocate(0);
+
+	private final Class<?>[]           registeredTypes;
+	private final Queue<KryoResources> pool;
+
+	/**
+	 * Create a codec registering the given types.
+	 *
+	 * @param registeredTypes the types to register with every {@link Kryo} instance
+	 */
+	public KryoMessageCodec(Class<?>... registeredTypes) {
+		this(DEFAULT_POOL_SIZE, registeredTypes);
+	}
+
+	/**
+	 * Create a codec registering the given types.
+	 *
+	 * @param poolSize        the number of {@link Kryo} instances kept in the pool
+	 * @param registeredTypes the types to register with every {@link Kryo} instance
+	 */
+	public KryoMessageCodec(int poolSize, Class<?>... registeredTypes) {
+		Assert.isTrue(poolSize > 0, "Pool size must be positive");
+		this.registeredTypes = registeredTypes.clone();
+		this.pool = new ArrayBlockingQueue<>(poolSize);
+	}
+
+	@Override
+	public byte[] encode(Message<?> message) {
+		KryoResources resources = borrow();
+		try {
+			resources.output.clear();
+			write(resources.kryo, resources.output, message);
+			return resources.output.toBytes();
+		} finally {
+			release(resources);
+		}
+	}
+
+	@Override
+	public Message<?> decode(byte[] bytes) {
+		KryoResources resources = borrow();
+		try {
+			resources.input.setBuffer(bytes);
+			return read(resources.kryo, resources.input);
+		} finally {
+			release(resources);
+		}
+	}
+
+	@Override
+	public int encode(Message<?> message, ByteBuffer buffer) {
+		KryoResources resources = borrow();
+		try {
+			ByteBuffer target = buffer.slice();
+			resources.bufferOutput.setBuffer(target, target.capacity());
+			write(resources.kryo, resources.bufferOutput, message);
+			int length = resources.bufferOutput.position();
+			buffer.position(buffer.position() + length);
+			return length;
+		} finally {
+			resources.bufferOutput.setBuffer(EMPTY, 0);
+			release(resources);
+		}
+	}
+
+	@Override
+	public Message<?> decode(ByteBuffer buffer) {
+		KryoResources resources = borrow();
+		try {
+			ByteBuffer source = buffer.slice();
+			resources.bufferInput.setBuffer(source, 0, source.remaining());
+			Message<?> message = read(resources.kryo, resources.bufferInput);
+			buffer.position(buffer.limit());
+			return message;
+		} finally {
+			resources.bufferInput.setBuffer(EMPTY, 0, 0);
+			release(resources);
+		}
+	}
+
+	/**
+	 * Create a new {@link Kryo} instance for the pool. Subclasses can override this method to further configure
+	 * instances, calling {@code super} to keep the type registrations.
+	 *
+	 * @return a new {@link Kryo} instance
+	 */
+	protected Kryo createKryo() {
+		Kryo kryo = new Kryo();
+		kryo.setReferences(false);
+		for (Class<?> type : registeredTypes) {
+			kryo.register(type);
+		}
+		return kryo;
+	}
+
+	private KryoResources borrow() {
+		KryoResources resources = pool.poll();
+		return (null != resources ? resources : new KryoResources(createKryo()));
+	}
+
+	private void release(KryoResources resources) {
+		pool.offer(resources);
+	}
+
+	private static void write(Kryo kryo, Output output, Message<?> message) {
+		MessageHeaders headers = message.getHeaders();
+		UUID id = headers.getId();
+		Long timestamp = headers.getTimestamp();
+		try {
+			output.writeBoolean(null != id);
+			if (null != id) {
+				output.writeLong(id.getMostSignificantBits());
+				output.writeLong(id.getLeastSignificantBits());
+			}
+			output.writeLong(null != timestamp ? timestamp : -1L);
+
+			int count = headers.size() - (null != id ? 1 : 0) - (null != timestamp ? 1 : 0);
+			output.writeInt(count, true);
+			for (Map.Entry<String, Object> header : headers.entrySet()) {
+				if (!MessageHeaders.ID.equals(header.getKey()) && !MessageHeaders.TIMESTAMP.equals(header.getKey())) {
+					output.writeString(header.getKey());
+					kryo.writeClassAndObject(output, header.getValue());
+				}
+			}
+			kryo.writeClassAndObject(output, message.getPayload());
+			output.flush();
+		} catch (KryoException e) {
+			throw new CodecException("Failed to encode " + message, e);
+		}
+	}
+
+	private static Message<?> read(Kryo kryo, Input input) {
+		try {
+			UUID id = (input.readBoolean() ? new UUID(input.readLong(), input.readLong()) : null);
+			long timestamp = input.readLong();
+
+			int count = input.readInt(true);
+			Map<String, Object> headers = new HashMap<>(count * 2);
+			for (int i = 0; i < count; i++) {
+				headers.put(input.readString(), kryo.readClassAndObject(input));
+			}
+			Object payload = kryo.readClassAndObject(input);
+			return new GenericMessage<>(payload, new DecodedMessageHeaders(headers, id,
+					(timestamp >= 0 ? timestamp : null)));
+		} catch (KryoException e) {
+			throw new CodecException("Failed to decode message", e);
+		}
+	}
+
+	private static final class KryoResources {
+		final Kryo             kryo;
+		final Output           output       = new Output(INITIAL_BUFFER_SIZE, -1);
+		final Input            input        = new Input();
+		final ByteBufferOutput bufferOutput = new BoundedByteBufferOutput();
+		final ByteBufferInput  bufferInput  = new ByteBufferInput();
+
+		KryoResources(Kryo kryo) {
+			this.kryo = kryo;
+		}
+	}
+
+	/**
+	 * {@link ByteBufferOutput} over a buffer that never grows, failing with a {@link BufferOverflowException} as soon
+	 * as a write does not fit in the bytes remaining, rather than with a {@link KryoException}.
+	 */
+	private static final class BoundedByteBufferOutput extends ByteBufferOutput {
+
+		@Override
+		protected boolean require(int required) {
+			if (capacity - position < required) {
+				throw new BufferOverflowException();
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+package reactor.spring.messaging.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import org.springframework.messaging.Message;
+
+/**
+ * Strategy to encode a {@link Message}, payload and headers, to bytes and back, used by the channels that store or
+ * transport messages outside of the JVM heap.
+ * <p>Codecs able to write to and read from a {@link ByteBuffer} directly, such as an off-heap or memory-mapped one,
+ * override {@link #encode(Message, ByteBuffer)} and {@link #decode(ByteBuffer)}, which otherwise go through an
+ * intermediate {@code byte[]}.</p>
+ *
+ * @author Stephane Maldini
+ */
+public interface MessageCodec {
+
+	/**
+	 * Encode a message.
+	 *
+	 * @param message the message to encode
+	 * @return the encoded message
+	 * @throws CodecException if the message cannot be encoded
+	 */
+	byte[] encode(Message<?> message);
+
+	/**
+	 * Decode a message encoded by this codec.
+	 *
+	 * @param bytes the encoded message
+	 * @return the decoded message
+	 * @throws CodecException if the bytes cannot be decoded
+	 */
+	Message<?> decode(byte[] bytes);
+
+	/**
+	 * Encode a message into a {@link ByteBuffer}, starting at its position, which is advanced past the encoded
+	 * message.
+	 *
+	 * @param message the message to encode
+	 * @param buffer  the buffer to write to
+	 * @return the number of bytes written
+	 * @throws BufferOverflowException if the encoded message does not fit in the remaining space, in which case the
+	 *                                 content of the buffer past its position is undefined
+	 * @throws CodecException          if the message cannot be encoded
+	 */
+	default int encode(Message<?> message, ByteBuffer buffer) {
+		byte[] bytes = encode(message);
+		buffer.put(bytes);
+		return bytes.length;
+	}
+
+	/**
+	 * Decode a message from the remaining bytes of a {@link ByteBuffer}, which are all consumed.
+	 *
+	 * @param buffer the buffer holding the encoded message
+	 * @return the decoded message
+	 * @throws CodecException if the bytes cannot be decoded
+	 */
+	default Message<?> decode(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return decode(bytes);
+	}
+
+}
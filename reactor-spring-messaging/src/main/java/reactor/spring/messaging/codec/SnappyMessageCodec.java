@@ -0,0 +1,84 @@
+package reactor.spring.messaging.codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.xerial.snappy.Snappy;
+
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * {@link MessageCodec} compressing the output of another codec with <a href="https://github.com/xerial/snappy-java">
+ * Snappy</a>, trading a little CPU for less memory and bandwidth on large or repetitive messages. Heap buffers are
+ * compressed into and uncompressed from their backing array in place.
+ *
+ * @author Stephane Maldini
+ */
+public class SnappyMessageCodec implements MessageCodec {
+
+	private final MessageCodec delegate;
+
+	/**
+	 * Create a codec compressing the output of the given codec.
+	 *
+	 * @param delegate the codec encoding messages before compression
+	 */
+	public SnappyMessageCodec(MessageCodec delegate) {
+		Assert.notNull(delegate, "Delegate MessageCodec cannot be null");
+		this.delegate = delegate;
+	}
+
+	@Override
+	public byte[] encode(Message<?> message) {
+		try {
+			return Snappy.compress(delegate.encode(message));
+		} catch (IOException e) {
+			throw new CodecException("Failed to compress " + message, e);
+		}
+	}
+
+	@Override
+	public Message<?> decode(byte[] bytes) {
+		try {
+			return delegate.decode(Snappy.uncompress(bytes));
+		} catch (IOException e) {
+			throw new CodecException("Failed to uncompress message", e);
+		}
+	}
+
+	@Override
+	public int encode(Message<?> message, ByteBuffer buffer) {
+		byte[] uncompressed = delegate.encode(message);
+		try {
+			if (buffer.hasArray() && buffer.remaining() >= Snappy.maxCompressedLength(uncompressed.length)) {
+				int length = Snappy.compress(uncompressed, 0, uncompressed.length, buffer.array(),
+						buffer.arrayOffset() + buffer.position());
+				buffer.position(buffer.position() + length);
+				return length;
+			}
+			byte[] compressed = Snappy.compress(uncompressed);
+			buffer.put(compressed);
+			return compressed.length;
+		} catch (IOException e) {
+			throw new CodecException("Failed to compress " + message, e);
+		}
+	}
+
+	@Override
+	public Message<?> decode(ByteBuffer buffer) {
+		if (!buffer.hasArray()) {
+			return MessageCodec.super.decode(buffer);
+		}
+		try {
+			int offset = buffer.arrayOffset() + buffer.position();
+			byte[] uncompressed = new byte[Snappy.uncompressedLength(buffer.array(), offset, buffer.remaining())];
+			Snappy.uncompress(buffer.array(), offset, buffer.remaining(), uncompressed, 0);
+			buffer.position(buffer.limit());
+			return delegate.decode(uncompressed);
+		} catch (IOException e) {
+			throw new CodecException("Failed to uncompress message", e);
+		}
+	}
+
+}
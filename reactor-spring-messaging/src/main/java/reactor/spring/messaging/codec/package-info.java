@@ -0,0 +1,4 @@
+/**
+ * Encode {@link org.springframework.messaging.Message Messages} to bytes for journaling and cross-process transport.
+ */
+package reactor.spring.messaging.codec;
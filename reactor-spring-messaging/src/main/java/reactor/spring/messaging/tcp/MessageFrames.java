@@ -0,0 +1,36 @@
+package reactor.spring.messaging.tcp;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandler;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+
+/**
+ * Wire format shared by {@link ReactorTcpChannelServer} and {@link ReactorTcpMessageChannel}: every frame is its
+ * length as a 4-byte int followed by that many bytes. Clients send frames holding a codec-encoded message, the server
+ * answers with frames holding a 4-byte int of credit, the number of further messages the client may send.
+ *
+ * @author Stephane Maldini
+ */
+final class MessageFrames {
+
+	/**
+	 * Default largest size in bytes of an encoded message.
+	 */
+	static final int DEFAULT_MAX_FRAME_LENGTH = 1024 * 1024;
+
+	static final int LENGTH_FIELD_SIZE = 4;
+
+	private MessageFrames() {
+	}
+
+	static ChannelHandler newFrameDecoder(int maxFrameLength) {
+		return new LengthFieldBasedFrameDecoder(maxFrameLength + LENGTH_FIELD_SIZE, 0, LENGTH_FIELD_SIZE, 0,
+				LENGTH_FIELD_SIZE);
+	}
+
+	static ByteBuf creditFrame(ByteBufAllocator alloc, int credit) {
+		return alloc.buffer(LENGTH_FIELD_SIZE * 2).writeInt(LENGTH_FIELD_SIZE).writeInt(credit);
+	}
+
+}
@@ -0,0 +1,209 @@
+package reactor.spring.messaging.tcp;
+
+import java.nio.ByteBuffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.NettyInbound;
+import reactor.ipc.netty.NettyOutbound;
+import reactor.ipc.netty.tcp.TcpServer;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.util.Assert;
+
+import reactor.spring.messaging.codec.MessageCodec;
+
+/**
+ * TCP server exposing a {@link MessageChannel}, typically a
+ * {@link reactor.spring.messaging.ReactorSubscribableChannel}, to {@link ReactorTcpMessageChannel} clients in other
+ * processes. Every message a client sends is decoded with a {@link MessageCodec} and sent to the channel. Any peer
+ * able to connect can make the server decode bytes of its choosing, so the codec must not deserialize arbitrary
+ * classes: a {@link reactor.spring.messaging.codec.JdkSerializationMessageCodec} must be restricted to the expected
+ * classes.
+ * <p>Flow control is demand-based, in the manner of a Reactive Streams {@code request(n)}: each connection starts with
+ * a window of credit, one per message the client may send, and the server grants more credit as it hands received
+ * messages to the channel. Messages are handed to the channel off the Netty event loop, on a delivery thread of their
+ * connection, so that a channel whose {@code RingBuffer} is full blocks that thread and holds back the credit of its
+ * client, without stalling the other connections served by the same event loop. The messages a client has written
+ * before closing its connection are still handed to the channel.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorTcpChannelServer implements SmartLifecycle {
+
+	/**
+	 * Default number of messages a client may send ahead of the server.
+	 */
+	public static final int DEFAULT_WINDOW = 256;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final MessageChannel channel;
+	private final String         host;
+	private final int            port;
+	private final MessageCodec   codec;
+	private final int            window;
+	private final int            maxFrameLength;
+
+	private volatile NettyContext context;
+	private volatile Scheduler    deliveries;
+
+	/**
+	 * Create a {@literal ReactorTcpChannelServer} with default settings.
+	 *
+	 * @param channel the channel received messages are sent to
+	 * @param host    the host to bind to
+	 * @param port    the port to listen on, or {@code 0} for any free port
+	 * @param codec   the {@link MessageCodec} used to decode messages, which must match the clients'
+	 */
+	public ReactorTcpChannelServer(MessageChannel channel, String host, int port, MessageCodec codec) {
+		this(channel, host, port, codec, DEFAULT_WINDOW, MessageFrames.DEFAULT_MAX_FRAME_LENGTH);
+	}
+
+	/**
+	 * Create a {@literal ReactorTcpChannelServer}.
+	 *
+	 * @param channel        the channel received messages are sent to
+	 * @param host           the host to bind to
+	 * @param port           the port to listen on, or {@code 0} for any free port
+	 * @param codec          the {@link MessageCodec} used to decode messages, which must match the clients'
+	 * @param window         the number of messages each client may send ahead of the server
+	 * @param maxFrameLength the largest size in bytes of an encoded message
+	 */
+	public ReactorTcpChannelServer(MessageChannel channel, String host, int port, MessageCodec codec, int window,
+	                               int maxFrameLength) {
+		Assert.notNull(channel, "MessageChannel cannot be null");
+		Assert.hasText(host, "Host cannot be empty");
+		Assert.notNull(codec, "MessageCodec cannot be null");
+		Assert.isTrue(window > 0, "Window must be positive");
+		Assert.isTrue(maxFrameLength > 0, "Maximum frame length must be positive");
+		this.channel = channel;
+		this.host = host;
+		this.port = port;
+		this.codec = codec;
+		this.window = window;
+		this.maxFrameLength = maxFrameLength;
+	}
+
+	/**
+	 * Get the port the server listens on, which is the actual one when created with port {@code 0}.
+	 *
+	 * @return the port
+	 * @throws IllegalStateException if the server is not running
+	 */
+	public int getPort() {
+		NettyContext context = this.context;
+		Assert.state(null != context, "Server is not running");
+		return context.address().getPort();
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	@Override
+	public void start() {
+		synchronized (this) {
+			if (null == context) {
+				deliveries = Schedulers.newElastic("tcpChannelServer", 60, true);
+				context = TcpServer.create(host, port).newHandler(this::handle).block();
+			}
+		}
+	}
+
+	@Override
+	public void stop() {
+		synchronized (this) {
+			if (null != context) {
+				context.dispose();
+				context = null;
+				deliveries.shutdown();
+				deliveries = null;
+			}
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return null != context;
+	}
+
+	@Override
+	public int getPhase() {
+		return 0;
+	}
+
+	private Publisher<Void> handle(NettyInbound in, NettyOutbound out) {
+		in.context().addDecoder(MessageFrames.newFrameDecoder(maxFrameLength));
+		Channel connection = in.context().channel();
+		CreditGrant grant = new CreditGrant(connection);
+		// frames are copied as Netty releases them once received, and the client never sends more than a window ahead;
+		// credit is written apart, so that the frames of a client that has closed the connection are still delivered
+		in.receive()
+		  .map(ReactorTcpChannelServer::copy)
+		  .publishOn(deliveries, window)
+		  .subscribe(grant::deliver, error -> log.error("Failed to receive from " + connection.remoteAddress(), error));
+		grant.write(window);
+		return in.context().onClose();
+	}
+
+	private static ByteBuffer copy(ByteBuf frame) {
+		ByteBuffer copy = ByteBuffer.allocate(frame.readableBytes());
+		frame.readBytes(copy);
+		copy.flip();
+		return copy;
+	}
+
+	/**
+	 * Delivers the frames of a connection to the channel from its delivery thread, granting credit back every half
+	 * window so that a client sending at full speed does not stall waiting for it.
+	 */
+	private final class CreditGrant {
+		private final int     threshold = Math.max(1, window / 2);
+		private final Channel connection;
+
+		private int delivered;
+
+		CreditGrant(Channel connection) {
+			this.connection = connection;
+		}
+
+		void deliver(ByteBuffer frame) {
+			try {
+				Message<?> message = codec.decode(frame);
+				if (!channel.send(message)) {
+					log.error("Message " + message.getHeaders().getId() + " was rejected by " + channel);
+				}
+			} catch (Throwable t) {
+				Exceptions.throwIfFatal(t);
+				log.error("", t);
+			}
+			if (++delivered >= threshold) {
+				write(delivered);
+				delivered = 0;
+			}
+		}
+
+		void write(int credit) {
+			// a write to a connection already closed fails and releases the frame
+			connection.writeAndFlush(MessageFrames.creditFrame(connection.alloc(), credit));
+		}
+	}
+
+}
@@ -0,0 +1,241 @@
+package reactor.spring.messaging.tcp;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.NettyInbound;
+import reactor.ipc.netty.NettyOutbound;
+import reactor.ipc.netty.NettyPipeline;
+import reactor.ipc.netty.tcp.TcpClient;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.util.Assert;
+
+import reactor.spring.messaging.codec.MessageCodec;
+
+/**
+ * {@link MessageChannel} sending messages over TCP to a {@link ReactorTcpChannelServer}, which hands them to the
+ * channel it exposes in another process.
+ * <p>Messages are encoded by the sending thread and pipelined: they are queued and written from the connection's event
+ * loop, which gathers every message queued in the meantime, up to a maximum batch size, in a single write and flush.
+ * A busy channel so pays for one flush per batch rather than one per message.</p>
+ * <p>The server grants credit for the messages it can take, and {@link #send(Message, long)} waits up to its timeout
+ * for credit before rejecting a message and returning {@code false}, so that a slow remote channel slows senders down
+ * instead of filling up the connection.</p>
+ * <p>Once the connection is closed, sending fails with a {@link MessageDeliveryException}. {@link #destroy()} writes
+ * the messages queued so far before closing the connection, waiting for them at most {@value #CLOSE_TIMEOUT_MILLIS}
+ * milliseconds.</p>
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorTcpMessageChannel implements MessageChannel, DisposableBean {
+
+	/**
+	 * Default largest number of messages gathered in a single write.
+	 */
+	public static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
+	/**
+	 * Time in milliseconds {@link #destroy()} waits for the queued messages to be written.
+	 */
+	public static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+	private final Queue<byte[]>             pending       = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger             wip           = new AtomicInteger();
+	private final AtomicLong                credit        = new AtomicLong();
+	private final LongAdder                 rejectedSends = new LongAdder();
+	private final UnicastProcessor<ByteBuf> batches       = UnicastProcessor.create();
+	private final Runnable                  drainTask     = this::drain;
+	private final MessageCodec              codec;
+	private final int                       maxBatchSize;
+	private final int                       maxFrameLength;
+	private final NettyContext              context;
+
+	private volatile boolean closed;
+
+	/**
+	 * Create a {@literal ReactorTcpMessageChannel} connected to the given server with default settings.
+	 *
+	 * @param host  the host of the server
+	 * @param port  the port of the server
+	 * @param codec the {@link MessageCodec} used to encode messages, which must match the server's
+	 */
+	public ReactorTcpMessageChannel(String host, int port, MessageCodec codec) {
+		this(host, port, codec, DEFAULT_MAX_BATCH_SIZE, MessageFrames.DEFAULT_MAX_FRAME_LENGTH);
+	}
+
+	/**
+	 * Create a {@literal ReactorTcpMessageChannel} connected to the given server.
+	 *
+	 * @param host           the host of the server
+	 * @param port           the port of the server
+	 * @param codec          the {@link MessageCodec} used to encode messages, which must match the server's
+	 * @param maxBatchSize   the largest number of messages gathered in a single write
+	 * @param maxFrameLength the largest size in bytes of an encoded message, which must not exceed the server's
+	 */
+	public ReactorTcpMessageChannel(String host, int port, MessageCodec codec, int maxBatchSize, int maxFrameLength) {
+		Assert.hasText(host, "Host cannot be empty");
+		Assert.notNull(codec, "MessageCodec cannot be null");
+		Assert.isTrue(maxBatchSize > 0, "Maximum batch size must be positive");
+		Assert.isTrue(maxFrameLength > 0, "Maximum frame length must be positive");
+		this.codec = codec;
+		this.maxBatchSize = maxBatchSize;
+		this.maxFrameLength = maxFrameLength;
+		this.context = TcpClient.create(host, port).newHandler(this::handle).block();
+		this.context.onClose(() -> closed = true);
+	}
+
+	/**
+	 * Get the number of messages that can be sent before the server grants more credit.
+	 *
+	 * @return the available credit
+	 */
+	public long getAvailableCredit() {
+		return credit.get();
+	}
+
+	/**
+	 * Get the number of messages rejected because the server granted no credit within the send timeout.
+	 *
+	 * @return the number of rejected sends
+	 */
+	public long getRejectedSendCount() {
+		return rejectedSends.sum();
+	}
+
+	@Override
+	public boolean send(Message<?> message) {
+		return send(message, INDEFINITE_TIMEOUT);
+	}
+
+	/**
+	 * Encode the message and queue it for the next write once the server has granted credit for it.
+	 *
+	 * @param message the message to send
+	 * @param timeout the time in milliseconds to wait for credit, or a negative value to wait indefinitely
+	 * @return {@code true} if the message was queued, {@code false} if no credit was granted within the timeout
+	 * @throws IllegalArgumentException if the encoded message exceeds the maximum frame length
+	 * @throws MessageDeliveryException if the connection is closed
+	 */
+	@Override
+	public boolean send(Message<?> message, long timeout) {
+		Assert.notNull(message, "Message cannot be null");
+		checkOpen(message);
+		byte[] frame = codec.encode(message);
+		if (frame.length > maxFrameLength) {
+			throw new IllegalArgumentException("Encoded message exceeds the maximum of " + maxFrameLength + " bytes");
+		}
+		if (!awaitCredit(message, timeout)) {
+			rejectedSends.increment();
+			return false;
+		}
+		pending.offer(frame);
+		// a frame queued after the last drain of a closing channel would never be written
+		if (closed && pending.remove(frame)) {
+			checkOpen(message);
+		}
+		if (wip.getAndIncrement() == 0) {
+			context.channel().eventLoop().execute(drainTask);
+		}
+		return true;
+	}
+
+	/**
+	 * Stop accepting messages, write the ones already queued and close the connection.
+	 */
+	@Override
+	public void destroy() throws Exception {
+		closed = true;
+		context.channel().eventLoop().execute(() -> {
+			writePending();
+			batches.onComplete();
+		});
+		try {
+			context.onClose().timeoutMillis(CLOSE_TIMEOUT_MILLIS, Mono.empty()).block();
+		} finally {
+			context.dispose();
+		}
+	}
+
+	private Publisher<Void> handle(NettyInbound in, NettyOutbound out) {
+		in.context().addDecoder(MessageFrames.newFrameDecoder(MessageFrames.LENGTH_FIELD_SIZE));
+		in.receive().subscribe(frame -> credit.addAndGet(frame.readInt()));
+		return out.options(NettyPipeline.SendOptions::flushOnEach)
+		          .send(batches);
+	}
+
+	private boolean awaitCredit(Message<?> message, long timeout) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (; ; ) {
+			long available = credit.get();
+			if (available > 0) {
+				if (credit.compareAndSet(available, available - 1)) {
+					return true;
+				}
+				continue;
+			}
+			checkOpen(message);
+			if (timeout == 0 || (timeout > 0 && System.nanoTime() - deadline >= 0) ||
+					Thread.currentThread().isInterrupted()) {
+				return false;
+			}
+			LockSupport.parkNanos(1L);
+		}
+	}
+
+	private void checkOpen(Message<?> message) {
+		if (closed) {
+			throw new MessageDeliveryException(message, "Connection to " + context.address() + " is closed");
+		}
+	}
+
+	private void drain() {
+		int missed = 1;
+		for (; ; ) {
+			writePending();
+			missed = wip.addAndGet(-missed);
+			if (missed == 0) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Write the queued frames in batches, from the connection's event loop.
+	 */
+	private void writePending() {
+		ByteBufAllocator alloc = context.channel().alloc();
+		ByteBuf batch = null;
+		int size = 0;
+		byte[] frame;
+		while (null != (frame = pending.poll())) {
+			if (null == batch) {
+				batch = alloc.buffer();
+			}
+			batch.writeInt(frame.length).writeBytes(frame);
+			if (++size == maxBatchSize) {
+				batches.onNext(batch);
+				batch = null;
+				size = 0;
+			}
+		}
+		if (null != batch) {
+			batches.onNext(batch);
+		}
+	}
+
+}
@@ -0,0 +1,5 @@
+/**
+ * Bridge {@link org.springframework.messaging.MessageChannel MessageChannels} across processes over TCP, using
+ * reactor-netty.
+ */
+package reactor.spring.messaging.tcp;
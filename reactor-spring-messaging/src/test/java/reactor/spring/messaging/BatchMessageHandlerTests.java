@@ -0,0 +1,84 @@
+package reactor.spring.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Stephane Maldini
+ */
+public class BatchMessageHandlerTests {
+
+	@Test
+	public void messagesAccumulatedUnderLoadAreDeliveredInBatches() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		int count = 10000;
+		CollectingBatchHandler handler = new CollectingBatchHandler(count);
+		assertTrue(channel.subscribe(handler, 100, 0));
+
+		for (int i = 0; i < count; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+
+		assertTrue("every message was delivered", handler.latch.await(5, TimeUnit.SECONDS));
+		List<Object> expected = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			expected.add(i);
+		}
+		assertEquals(expected, handler.payloads);
+		for (Integer size : handler.batchSizes) {
+			assertTrue("batches never exceed the batch size", size <= 100);
+		}
+		assertTrue("messages were batched", handler.batchSizes.size() < count);
+		assertTrue(channel.unsubscribe(handler));
+	}
+
+	@Test
+	public void partialBatchIsDeliveredAfterTimeout() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel();
+		CollectingBatchHandler handler = new CollectingBatchHandler(3);
+		assertTrue(channel.subscribe(handler, 100, 200));
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 3; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+
+		assertTrue("the partial batch was delivered", handler.latch.await(5, TimeUnit.SECONDS));
+		assertTrue("the partial batch waited for the timeout",
+				System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+		assertEquals(1, handler.batchSizes.size());
+		assertEquals(3, (int) handler.batchSizes.get(0));
+		channel.unsubscribe(handler);
+	}
+
+	static class CollectingBatchHandler implements BatchMessageHandler {
+		final List<Object>   payloads   = new CopyOnWriteArrayList<>();
+		final List<Integer>  batchSizes = new CopyOnWriteArrayList<>();
+		final CountDownLatch latch;
+
+		CollectingBatchHandler(int expected) {
+			this.latch = new CountDownLatch(expected);
+		}
+
+		@Override
+		public void handleMessages(List<Message<?>> messages) {
+			batchSizes.add(messages.size());
+			for (Message<?> message : messages) {
+				payloads.add(message.getPayload());
+				latch.countDown();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package reactor.spring.messaging;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+
+import reactor.spring.messaging.codec.JdkSerializationMessageCodec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A handler subscribed twice to a channel stays subscribed once, whatever the way the channel dispatches.
+ *
+ * @author Stephane Maldini
+ */
+public class DuplicateSubscriptionTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void subscribableChannel() throws InterruptedException {
+		assertDuplicateSubscriptionIsIgnored(new ReactorSubscribableChannel(), false);
+	}
+
+	@Test
+	public void multiplexedSubscribableChannel() throws InterruptedException {
+		assertDuplicateSubscriptionIsIgnored(new ReactorSubscribableChannel(false, 1), false);
+	}
+
+	@Test
+	public void executorChannel() throws InterruptedException {
+		assertDuplicateSubscriptionIsIgnored(new ReactorExecutorChannel(), false);
+	}
+
+	@Test
+	public void partitionedChannel() throws InterruptedException {
+		assertDuplicateSubscriptionIsIgnored(new ReactorPartitionedChannel(2, "key"), false);
+	}
+
+	@Test
+	public void conflatingChannel() throws InterruptedException {
+		assertDuplicateSubscriptionIsIgnored(new ReactorConflatingChannel("key"), false);
+	}
+
+	@Test
+	public void slotChannel() throws InterruptedException {
+		assertDuplicateSubscriptionIsIgnored(new ReactorSlotChannel(), false);
+	}
+
+	@Test
+	public void byteBufferChannel() throws InterruptedException {
+		assertDuplicateSubscriptionIsIgnored(new ReactorByteBufferChannel(), true);
+	}
+
+	@Test
+	public void journaledChannel() throws Exception {
+		ReactorJournaledChannel channel = new ReactorJournaledChannel(folder.getRoot().getAbsolutePath());
+		try {
+			assertDuplicateSubscriptionIsIgnored(channel, false);
+		}
+		finally {
+			channel.destroy();
+		}
+	}
+
+	@Test
+	public void sharedMemoryChannel() throws Exception {
+		ReactorSharedMemoryChannel channel = new ReactorSharedMemoryChannel(folder.getRoot().getAbsolutePath() +
+				"/duplicate.ring", 64, 1024, new JdkSerializationMessageCodec(), 1000L);
+		try {
+			assertDuplicateSubscriptionIsIgnored(channel, false);
+		}
+		finally {
+			channel.destroy();
+		}
+	}
+
+	private static void assertDuplicateSubscriptionIsIgnored(AbstractReactorSubscribableChannel channel,
+	                                                         boolean binary) throws InterruptedException {
+		List<Object> received = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(3);
+		MessageHandler handler = message -> {
+			received.add(message.getHeaders().get("seq"));
+			latch.countDown();
+		};
+
+		assertTrue("first subscription is accepted", channel.subscribe(handler));
+		assertFalse("second subscription is rejected", channel.subscribe(handler));
+		for (int i = 0; i < 3; i++) {
+			Object payload = (binary ? new byte[]{(byte) i} : "message-" + i);
+			channel.send(MessageBuilder.withPayload(payload).setHeader("seq", i).build());
+		}
+
+		assertTrue("handler is still subscribed", latch.await(5, TimeUnit.SECONDS));
+		// a duplicate subscriber would deliver its copies alongside
+		Thread.sleep(100);
+		assertEquals(Arrays.<Object>asList(0, 1, 2), received);
+		assertTrue("handler is unsubscribed once", channel.unsubscribe(handler));
+		assertFalse("handler is no longer subscribed", channel.unsubscribe(handler));
+	}
+
+}
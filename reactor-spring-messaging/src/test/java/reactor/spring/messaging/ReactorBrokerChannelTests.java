@@ -0,0 +1,133 @@
+package reactor.spring.messaging;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorBrokerChannelTests {
+
+	@Test
+	public void partitionedChannelPreservesTheOrderOfEachSession() throws Exception {
+		ReactorBrokerChannel channel = new ReactorBrokerChannel(4, SimpMessageHeaderAccessor.SESSION_ID_HEADER);
+		int sessions = 16;
+		int count = 1000;
+		Map<Object, List<Object>> received = new ConcurrentHashMap<>();
+		CountDownLatch latch = new CountDownLatch(sessions * count);
+		channel.subscribe(message -> {
+			received.computeIfAbsent(message.getHeaders().get(SimpMessageHeaderAccessor.SESSION_ID_HEADER),
+					session -> new CopyOnWriteArrayList<>())
+			        .add(message.getPayload());
+			latch.countDown();
+		});
+
+		for (int i = 0; i < count; i++) {
+			for (int s = 0; s < sessions; s++) {
+				channel.send(MessageBuilder.withPayload(i)
+				                           .setHeader(SimpMessageHeaderAccessor.SESSION_ID_HEADER, "session-" + s)
+				                           .build());
+			}
+		}
+
+		assertTrue("handler received every message", latch.await(5, TimeUnit.SECONDS));
+		assertEquals(sessions, received.size());
+		for (List<Object> payloads : received.values()) {
+			for (int i = 0; i < count; i++) {
+				assertEquals(i, payloads.get(i));
+			}
+		}
+		channel.destroy();
+	}
+
+	@Test
+	public void pointToPointChannelDeliversEachMessageToEveryHandler() throws Exception {
+		ReactorBrokerChannel channel = new ReactorBrokerChannel(4);
+		int count = 1000;
+		AtomicInteger first = new AtomicInteger();
+		AtomicInteger second = new AtomicInteger();
+		CountDownLatch latch = new CountDownLatch(count * 2);
+		channel.subscribe(message -> {
+			first.incrementAndGet();
+			latch.countDown();
+		});
+		channel.subscribe(message -> {
+			second.incrementAndGet();
+			latch.countDown();
+		});
+
+		for (int i = 0; i < count; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+
+		assertTrue("handlers received every message", latch.await(5, TimeUnit.SECONDS));
+		assertEquals(count, first.get());
+		assertEquals(count, second.get());
+		channel.destroy();
+	}
+
+	@Test
+	public void executorInterceptorsRunOnTheDispatcherThread() throws Exception {
+		ReactorBrokerChannel channel = new ReactorBrokerChannel();
+		List<String> events = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		channel.addInterceptor(new RecordingInterceptor(events, latch));
+		channel.subscribe(message -> events.add("handle " + message.getPayload() + " on " + threadName()));
+
+		channel.send(MessageBuilder.withPayload("hello").build());
+
+		assertTrue("interceptor completed", latch.await(5, TimeUnit.SECONDS));
+		String dispatcher = channel.getBeanName();
+		assertEquals(3, events.size());
+		assertTrue(events.get(0), events.get(0).startsWith("before hello on " + dispatcher));
+		assertTrue(events.get(1), events.get(1).startsWith("handle intercepted on " + dispatcher));
+		assertTrue(events.get(2), events.get(2).startsWith("after intercepted on " + dispatcher));
+		channel.destroy();
+	}
+
+	private static String threadName() {
+		return Thread.currentThread().getName();
+	}
+
+	private static class RecordingInterceptor extends ChannelInterceptorAdapter implements ExecutorChannelInterceptor {
+		private final List<String>   events;
+		private final CountDownLatch latch;
+
+		RecordingInterceptor(List<String> events, CountDownLatch latch) {
+			this.events = events;
+			this.latch = latch;
+		}
+
+		@Override
+		public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+			events.add("before " + message.getPayload() + " on " + threadName());
+			return MessageBuilder.withPayload("intercepted").build();
+		}
+
+		@Override
+		public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+		                                Exception ex) {
+			events.add("after " + message.getPayload() + " on " + threadName());
+			latch.countDown();
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+package reactor.spring.messaging;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Comparing the {@link ReactorBrokerChannel} variants to the {@code ExecutorSubscribableChannel}s the STOMP broker
+ * configuration creates by default, with the thread pool settings of its client inbound and outbound channels.
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorBrokerChannelThroughputTests {
+
+	static final Logger LOG      = LoggerFactory.getLogger(ReactorBrokerChannelThroughputTests.class);
+	static final int    MSGS     = 100000;
+	static final int    SESSIONS = 64;
+
+	@Test
+	public void executorSubscribableChannelThroughput() throws Exception {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(Runtime.getRuntime().availableProcessors() * 2);
+		executor.setMaxPoolSize(Integer.MAX_VALUE);
+		executor.setKeepAliveSeconds(60);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.afterPropertiesSet();
+		try {
+			doTest("ExecutorSubscribableChannel", new ExecutorSubscribableChannel(executor));
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void orderedBrokerChannelThroughput() throws Exception {
+		ReactorBrokerChannel channel = new ReactorBrokerChannel();
+		doTest("ReactorBrokerChannel (ordered)", channel);
+		channel.destroy();
+	}
+
+	@Test
+	public void pointToPointBrokerChannelThroughput() throws Exception {
+		ReactorBrokerChannel channel = new ReactorBrokerChannel(4);
+		doTest("ReactorBrokerChannel (point-to-point)", channel);
+		channel.destroy();
+	}
+
+	@Test
+	public void partitionedBrokerChannelThroughput() throws Exception {
+		ReactorBrokerChannel channel = new ReactorBrokerChannel(4, SimpMessageHeaderAccessor.SESSION_ID_HEADER);
+		doTest("ReactorBrokerChannel (per-session)", channel);
+		channel.destroy();
+	}
+
+	private void doTest(String name, AbstractSubscribableChannel channel) throws InterruptedException {
+		CountDownLatch latch = new CountDownLatch(MSGS);
+		channel.subscribe(message -> latch.countDown());
+
+		Message<?>[] messages = new Message<?>[SESSIONS];
+		for (int i = 0; i < SESSIONS; i++) {
+			messages[i] = MessageBuilder.withPayload("Hello World!")
+			                            .setHeader(SimpMessageHeaderAccessor.SESSION_ID_HEADER, "session-" + i)
+			                            .build();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < MSGS; i++) {
+			channel.send(messages[i % SESSIONS]);
+		}
+		assertTrue("latch did not time out", latch.await(30, TimeUnit.SECONDS));
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		LOG.info("{} processed {} msgs in {}ms for throughput of {}/sec", name, MSGS, elapsed,
+				MSGS * 1000L / Math.max(elapsed, 1));
+	}
+
+}
@@ -0,0 +1,126 @@
+package reactor.spring.messaging;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorByteBufferChannelTests {
+
+	@Test
+	public void binaryPayloadsAreHandedOverAsReadOnlyOffHeapBuffers() throws InterruptedException {
+		ReactorByteBufferChannel channel = new ReactorByteBufferChannel(true, 4, 2, 32);
+		int count = 100;
+		List<String> first = new CopyOnWriteArrayList<>();
+		List<String> second = new CopyOnWriteArrayList<>();
+		List<String> offloaded = new CopyOnWriteArrayList<>();
+		List<Object> types = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(count * 3);
+		ExecutorService offload = Executors.newSingleThreadExecutor();
+
+		channel.subscribe(reader(first, latch, types));
+		channel.subscribe(reader(second, latch, null));
+		channel.subscribe(reader(offloaded, latch, null), offload);
+
+		for (int i = 0; i < count; i++) {
+			byte[] bytes = ("frame-" + i).getBytes(StandardCharsets.UTF_8);
+			Object payload = (i % 2 == 0 ? bytes : ByteBuffer.wrap(bytes));
+			assertTrue(channel.send(MessageBuilder.withPayload(payload).setHeader("seq", i).build()));
+		}
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < count; i++) {
+			assertEquals("frame-" + i, first.get(i));
+			assertEquals("every handler reads the whole payload", "frame-" + i, second.get(i));
+			assertEquals("offloaded handlers read a stable copy", "frame-" + i, offloaded.get(i));
+		}
+		assertEquals(Boolean.TRUE, types.get(0));
+		offload.shutdown();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void oversizedPayloadIsRejected() {
+		new ReactorByteBufferChannel(true, 4, 2, 4).send(MessageBuilder.withPayload(new byte[5]).build());
+	}
+
+	@Test
+	public void backlogExceedingTheMaximumBufferSizeIsRejected() {
+		try {
+			new ReactorByteBufferChannel(true, 1 << 16, 2, 1 << 16);
+			fail("buffer of 2^32 bytes was allocated");
+		}
+		catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("exceeds the maximum buffer size"));
+		}
+	}
+
+	@Test
+	public void messageWithTooManyHeadersIsRejectedWithoutHoldingASlot() throws InterruptedException {
+		ReactorByteBufferChannel channel = new ReactorByteBufferChannel(true, 2, 1, 4);
+		CountDownLatch latch = new CountDownLatch(4);
+		channel.subscribe(message -> latch.countDown());
+
+		try {
+			channel.send(MessageBuilder.withPayload(new byte[1]).setHeader("a", 1).setHeader("b", 2).build());
+			fail("a message with more headers than a slot holds is rejected");
+		}
+		catch (IllegalArgumentException expected) {
+		}
+		for (int i = 0; i < 4; i++) {
+			assertTrue("every slot is still available", channel.send(MessageBuilder.withPayload(new byte[1])
+					.setHeader("a", i).build(), 5000));
+		}
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void nonBlockingSendIsRejectedWhenAllSlotsArePending() throws InterruptedException {
+		ReactorByteBufferChannel channel = new ReactorByteBufferChannel(true, 2, 1, 4);
+		CountDownLatch blocked = new CountDownLatch(1);
+		channel.subscribe(message -> {
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		assertTrue(channel.send(MessageBuilder.withPayload(new byte[1]).build(), 0));
+		assertTrue(channel.send(MessageBuilder.withPayload(new byte[1]).build(), 0));
+		assertFalse(channel.send(MessageBuilder.withPayload(new byte[1]).build(), 0));
+		assertEquals(1, channel.getRejectedSendCount());
+		blocked.countDown();
+	}
+
+	private static MessageHandler reader(List<String> frames, CountDownLatch latch, List<Object> types) {
+		return message -> {
+			ByteBuffer buffer = (ByteBuffer) message.getPayload();
+			if (null != types) {
+				types.add(buffer.isReadOnly() && buffer.isDirect());
+			}
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			frames.add(new String(bytes, StandardCharsets.UTF_8));
+			latch.countDown();
+		};
+	}
+
+}
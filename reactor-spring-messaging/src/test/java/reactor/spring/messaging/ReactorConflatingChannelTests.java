@@ -0,0 +1,94 @@
+package reactor.spring.messaging;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorConflatingChannelTests {
+
+	@Test
+	public void slowHandlerSkipsToTheLatestMessageOfEachKey() throws InterruptedException {
+		ReactorConflatingChannel channel = new ReactorConflatingChannel("symbol");
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch received = new CountDownLatch(1);
+		List<Message<?>> quotes = new CopyOnWriteArrayList<>();
+		Map<Object, Object> prices = new ConcurrentHashMap<>();
+		CountDownLatch latest = new CountDownLatch(2);
+		channel.subscribe(message -> {
+			received.countDown();
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			quotes.add(message);
+			prices.put(message.getHeaders().get("symbol"), message.getPayload());
+			if (message.getPayload().equals(99)) {
+				latest.countDown();
+			}
+		});
+
+		channel.send(quote("ACME", -1));
+		assertTrue(received.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 100; i++) {
+			channel.send(quote("ACME", i));
+			channel.send(quote("INIT", i));
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (channel.getConflatedCount() < 198 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		blocked.countDown();
+
+		assertTrue("handler received the latest price of each symbol", latest.await(5, TimeUnit.SECONDS));
+		assertEquals(3, quotes.size());
+		assertEquals(99, prices.get("ACME"));
+		assertEquals(99, prices.get("INIT"));
+		assertEquals(198, channel.getConflatedCount());
+	}
+
+	@Test
+	public void messagesWithoutKeyAreNeverConflated() throws InterruptedException {
+		ReactorConflatingChannel channel = new ReactorConflatingChannel("symbol");
+		CountDownLatch blocked = new CountDownLatch(1);
+		int count = 100;
+		CountDownLatch latch = new CountDownLatch(count);
+		channel.subscribe(message -> {
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			latch.countDown();
+		});
+
+		for (int i = 0; i < count; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+		blocked.countDown();
+
+		assertTrue("handler received every message", latch.await(5, TimeUnit.SECONDS));
+		assertEquals(0, channel.getConflatedCount());
+	}
+
+	private static Message<?> quote(String symbol, int price) {
+		return MessageBuilder.withPayload(price).setHeader("symbol", symbol).build();
+	}
+
+}
@@ -0,0 +1,76 @@
+package reactor.spring.messaging;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorExecutorChannelTests {
+
+	@Test
+	public void eachMessageIsHandledByExactlyOneHandler() throws InterruptedException {
+		ReactorExecutorChannel channel = new ReactorExecutorChannel(false, 1024);
+		int count = 10000;
+		Set<Object> payloads = ConcurrentHashMap.newKeySet();
+		AtomicInteger duplicates = new AtomicInteger();
+		CountDownLatch latch = new CountDownLatch(count);
+		AtomicInteger[] perHandler = new AtomicInteger[3];
+
+		for (int i = 0; i < perHandler.length; i++) {
+			AtomicInteger handled = perHandler[i] = new AtomicInteger();
+			assertTrue(channel.subscribe(message -> {
+				if (!payloads.add(message.getPayload())) {
+					duplicates.incrementAndGet();
+				}
+				handled.incrementAndGet();
+				latch.countDown();
+			}));
+		}
+
+		for (int i = 0; i < count; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+
+		assertTrue("every message was handled", latch.await(5, TimeUnit.SECONDS));
+		assertEquals(0, duplicates.get());
+		assertEquals(count, payloads.size());
+		int total = 0;
+		for (AtomicInteger handled : perHandler) {
+			total += handled.get();
+		}
+		assertEquals(count, total);
+	}
+
+	@Test
+	public void handlersCanBeAddedAndRemovedDynamically() throws InterruptedException {
+		ReactorExecutorChannel channel = new ReactorExecutorChannel();
+		CountDownLatch first = new CountDownLatch(1);
+		MessageHandler handler = message -> first.countDown();
+
+		assertTrue(channel.subscribe(handler));
+		assertFalse("a handler cannot be subscribed twice", channel.subscribe(handler));
+		channel.send(MessageBuilder.withPayload("first").build());
+		assertTrue(first.await(5, TimeUnit.SECONDS));
+		assertTrue(channel.unsubscribe(handler));
+		assertFalse(channel.unsubscribe(handler));
+
+		CountDownLatch second = new CountDownLatch(1);
+		assertTrue(channel.subscribe(message -> second.countDown()));
+		channel.send(MessageBuilder.withPayload("second").build());
+		assertTrue("the new handler takes over", second.await(5, TimeUnit.SECONDS));
+	}
+
+}
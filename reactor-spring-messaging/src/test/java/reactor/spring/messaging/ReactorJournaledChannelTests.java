@@ -0,0 +1,82 @@
+package reactor.spring.messaging;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorJournaledChannelTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void unacknowledgedMessagesAreReplayedAfterRestart() throws Exception {
+		String basePath = folder.getRoot().getAbsolutePath() + "/orders";
+
+		ReactorJournaledChannel channel = new ReactorJournaledChannel(basePath);
+		List<Object> audited = new CopyOnWriteArrayList<>();
+		CountDownLatch firstRun = new CountDownLatch(3);
+		MessageHandler audit = collector(audited, firstRun);
+		assertTrue(channel.subscribe("audit", audit));
+		for (int i = 0; i < 3; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+		assertTrue(firstRun.await(5, TimeUnit.SECONDS));
+		assertTrue(channel.unsubscribe(audit));
+		for (int i = 3; i < 6; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+		assertEquals(2, awaitAcknowledgedIndex(channel, "audit", 2));
+		channel.destroy();
+
+		ReactorJournaledChannel restarted = new ReactorJournaledChannel(basePath);
+		assertEquals(5, restarted.getLastJournaledIndex());
+		List<Object> replayed = new CopyOnWriteArrayList<>();
+		CountDownLatch secondRun = new CountDownLatch(4);
+		List<Object> live = new CopyOnWriteArrayList<>();
+		CountDownLatch liveRun = new CountDownLatch(1);
+		assertTrue(restarted.subscribe("audit", collector(replayed, secondRun)));
+		assertTrue(restarted.subscribe(collector(live, liveRun)));
+		restarted.send(MessageBuilder.withPayload(6).build());
+
+		assertTrue(secondRun.await(5, TimeUnit.SECONDS));
+		assertTrue(liveRun.await(5, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList(0, 1, 2), audited);
+		assertEquals("unacknowledged messages are replayed before live ones", Arrays.asList(3, 4, 5, 6), replayed);
+		assertEquals("plain handlers only see new messages", Arrays.asList(6), live);
+		assertEquals(6, awaitAcknowledgedIndex(restarted, "audit", 6));
+		restarted.destroy();
+	}
+
+	private static long awaitAcknowledgedIndex(ReactorJournaledChannel channel, String subscriberId, long index)
+			throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (channel.getAcknowledgedIndex(subscriberId) < index && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		return channel.getAcknowledgedIndex(subscriberId);
+	}
+
+	private static MessageHandler collector(List<Object> payloads, CountDownLatch latch) {
+		return message -> {
+			payloads.add(message.getPayload());
+			latch.countDown();
+		};
+	}
+
+}
@@ -0,0 +1,62 @@
+package reactor.spring.messaging;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorPartitionedChannelTests {
+
+	@Test
+	public void messagesWithTheSameKeyAreDeliveredInOrder() throws InterruptedException {
+		ReactorPartitionedChannel channel = new ReactorPartitionedChannel(4, "orderId");
+		int orders = 16;
+		int updates = 500;
+		Map<Object, List<Object>> received = new ConcurrentHashMap<>();
+		Map<Object, String> threads = new ConcurrentHashMap<>();
+		List<Object> inconsistentThreads = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(orders * updates);
+
+		channel.subscribe(message -> {
+			Object orderId = message.getHeaders().get("orderId");
+			String thread = threads.putIfAbsent(orderId, Thread.currentThread().getName());
+			if (null != thread && !thread.equals(Thread.currentThread().getName())) {
+				inconsistentThreads.add(orderId);
+			}
+			received.computeIfAbsent(orderId, k -> new CopyOnWriteArrayList<>()).add(message.getPayload());
+			latch.countDown();
+		});
+
+		for (int i = 0; i < updates; i++) {
+			for (int order = 0; order < orders; order++) {
+				channel.send(MessageBuilder.withPayload(i).setHeader("orderId", order).build());
+			}
+		}
+
+		assertTrue("every message was delivered", latch.await(5, TimeUnit.SECONDS));
+		List<Object> expected = new ArrayList<>();
+		for (int i = 0; i < updates; i++) {
+			expected.add(i);
+		}
+		for (int order = 0; order < orders; order++) {
+			assertEquals(expected, received.get(order));
+		}
+		assertTrue("each key is handled by a single thread", inconsistentThreads.isEmpty());
+		assertTrue("keys are spread across partitions", new HashSet<>(threads.values()).size() > 1);
+	}
+
+}
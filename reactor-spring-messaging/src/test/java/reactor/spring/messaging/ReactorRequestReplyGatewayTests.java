@@ -0,0 +1,92 @@
+package reactor.spring.messaging;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorRequestReplyGatewayTests {
+
+	private ReactorRequestReplyGateway gateway;
+
+	@Before
+	public void setup() {
+		ReactorSubscribableChannel requests = new ReactorSubscribableChannel(false, 2);
+		requests.subscribe(request -> {
+			if ("silence".equals(request.getPayload())) {
+				return;
+			}
+			MessageChannel replyChannel = (MessageChannel) request.getHeaders().getReplyChannel();
+			Object correlationId = request.getHeaders().get(ReactorRequestReplyGateway.CORRELATION_ID_HEADER);
+			replyChannel.send(MessageBuilder.withPayload(request.getPayload().toString().toUpperCase())
+			                                .setHeader(ReactorRequestReplyGateway.CORRELATION_ID_HEADER, correlationId)
+			                                .build());
+		});
+		gateway = new ReactorRequestReplyGateway(requests);
+	}
+
+	@After
+	public void close() {
+		gateway.destroy();
+	}
+
+	@Test
+	public void repliesCompleteTheirRequest() throws Exception {
+		List<Mono<Message<?>>> replies = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			replies.add(gateway.sendAndReceive(MessageBuilder.withPayload("hello " + i).build()));
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals("HELLO " + i, replies.get(i).block(Duration.ofSeconds(5)).getPayload());
+		}
+		assertEquals("WORLD",
+				gateway.sendAndReceiveAsync(MessageBuilder.withPayload("world").build(), 5000)
+				       .get(5, TimeUnit.SECONDS)
+				       .getPayload());
+		assertEquals(0, gateway.getPendingReplyCount());
+	}
+
+	@Test
+	public void missingReplyTimesOut() {
+		long start = System.nanoTime();
+		try {
+			gateway.sendAndReceive(MessageBuilder.withPayload("silence").build(), 100).block(Duration.ofSeconds(5));
+			fail("request without reply did not time out");
+		}
+		catch (MessageDeliveryException e) {
+			assertTrue("reply was awaited for its timeout",
+					System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+		}
+		assertEquals(0, gateway.getPendingReplyCount());
+	}
+
+	@Test
+	public void ownReplyChannelIsDestroyedWithTheGateway() {
+		ReactorRequestReplyGateway gateway = new ReactorRequestReplyGateway(new ReactorSubscribableChannel());
+		ReactorSubscribableChannel replyChannel = (ReactorSubscribableChannel) gateway.getReplyChannel();
+		Mono<Void> completion = Flux.from(replyChannel.asPublisher()).then().cache();
+		completion.subscribe();
+
+		gateway.destroy();
+		completion.block(Duration.ofSeconds(5));
+	}
+
+}
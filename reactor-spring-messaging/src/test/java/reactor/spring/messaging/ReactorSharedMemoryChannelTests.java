@@ -0,0 +1,155 @@
+package reactor.spring.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import reactor.spring.messaging.codec.JdkSerializationMessageCodec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorSharedMemoryChannelTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void messagesAreBroadcastToEveryChannelMappingTheRing() throws Exception {
+		String path = folder.getRoot().getAbsolutePath() + "/sidecar.ring";
+		ReactorSharedMemoryChannel producer = new ReactorSharedMemoryChannel(path, 1024, 1024,
+				new JdkSerializationMessageCodec(), 1000L);
+		ReactorSharedMemoryChannel consumer = new ReactorSharedMemoryChannel(path, 1024, 1024,
+				new JdkSerializationMessageCodec(), 1000L);
+
+		int count = 500;
+		List<Object> received = new CopyOnWriteArrayList<>();
+		List<Object> headers = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(count);
+		consumer.subscribe(message -> {
+			received.add(message.getPayload());
+			headers.add(message.getHeaders().get("source"));
+			latch.countDown();
+		});
+		CountDownLatch local = new CountDownLatch(count);
+		producer.subscribe(message -> local.countDown());
+
+		for (int i = 0; i < count; i++) {
+			producer.send(MessageBuilder.withPayload("message-" + i).setHeader("source", "producer").build());
+		}
+
+		assertTrue("the other channel received every message", latch.await(5, TimeUnit.SECONDS));
+		assertTrue("the sending channel's own handlers received every message", local.await(5, TimeUnit.SECONDS));
+		List<Object> expected = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			expected.add("message-" + i);
+		}
+		assertEquals(expected, received);
+		assertEquals("producer", headers.get(0));
+		assertEquals(0, consumer.getLostMessageCount());
+
+		producer.destroy();
+		consumer.destroy();
+	}
+
+	@Test
+	public void sendIsRejectedWhileALiveReaderHasNotReadTheSlot() throws Exception {
+		String path = folder.getRoot().getAbsolutePath() + "/backpressure.ring";
+		ReactorSharedMemoryChannel producer = new ReactorSharedMemoryChannel(path, 4, 1024,
+				new JdkSerializationMessageCodec(), 1000L);
+		ReactorSharedMemoryChannel consumer = new ReactorSharedMemoryChannel(path, 4, 1024,
+				new JdkSerializationMessageCodec(), 1000L);
+		CountDownLatch blocked = new CountDownLatch(1);
+		AtomicInteger received = new AtomicInteger();
+		consumer.subscribe(message -> {
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			received.incrementAndGet();
+		});
+
+		int sent = 0;
+		while (producer.send(MessageBuilder.withPayload("message-" + sent).build(), 100)) {
+			assertTrue("the ring eventually fills up", ++sent < 100000);
+		}
+		assertEquals(1, producer.getRejectedSendCount());
+		assertFalse("non-blocking send is rejected", producer.send(MessageBuilder.withPayload("late").build(), 0));
+		assertEquals(2, producer.getRejectedSendCount());
+
+		blocked.countDown();
+		assertTrue("send succeeds once the reader catches up",
+				producer.send(MessageBuilder.withPayload("message-" + sent++).build(), 5000));
+		long deadline = System.currentTimeMillis() + 5000;
+		while (received.get() < sent && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(sent, received.get());
+		assertEquals("no message was overwritten before being read", 0, consumer.getLostMessageCount());
+
+		producer.destroy();
+		consumer.destroy();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void messagesLargerThanASlotAreRejected() throws Exception {
+		ReactorSharedMemoryChannel channel = new ReactorSharedMemoryChannel(
+				folder.getRoot().getAbsolutePath() + "/small.ring", 16, 64, new JdkSerializationMessageCodec(), 1000L);
+		try {
+			channel.send(MessageBuilder.withPayload(new byte[128]).build());
+		}
+		finally {
+			channel.destroy();
+		}
+	}
+
+	@Test
+	public void slotIsPublishedEvenIfEncodingFailsWithAnError() throws Exception {
+		ReactorSharedMemoryChannel channel = new ReactorSharedMemoryChannel(
+				folder.getRoot().getAbsolutePath() + "/failing.ring", 16, 1024, new JdkSerializationMessageCodec() {
+					@Override
+					public byte[] encode(Message<?> message) {
+						if ("boom".equals(message.getPayload())) {
+							throw new AssertionError("boom");
+						}
+						return super.encode(message);
+					}
+				}, 1000L);
+		List<Object> received = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		channel.subscribe(message -> {
+			received.add(message.getPayload());
+			latch.countDown();
+		});
+
+		try {
+			channel.send(MessageBuilder.withPayload("boom").build());
+			fail("the codec error is propagated");
+		}
+		catch (AssertionError expected) {
+		}
+		channel.send(MessageBuilder.withPayload("after").build());
+
+		assertTrue("the reader moved past the failed slot", latch.await(5, TimeUnit.SECONDS));
+		assertEquals("after", received.get(0));
+		channel.destroy();
+	}
+
+}
@@ -0,0 +1,119 @@
+package reactor.spring.messaging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorSlotChannelTests {
+
+	@Test
+	public void claimedSlotsAreFilledInPlaceAndReused() throws InterruptedException {
+		ReactorSlotChannel channel = new ReactorSlotChannel(true, 8, 2);
+		int count = 1000;
+		List<Object> payloads = new CopyOnWriteArrayList<>();
+		List<Object> symbols = new CopyOnWriteArrayList<>();
+		List<Object> ids = new CopyOnWriteArrayList<>();
+		List<Message<?>> retained = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(count);
+		ExecutorService offload = Executors.newSingleThreadExecutor();
+
+		channel.subscribe(message -> {
+			payloads.add(message.getPayload());
+			symbols.add(message.getHeaders().get("symbol"));
+			ids.add(message.getHeaders().getId());
+			latch.countDown();
+		});
+		CountDownLatch offloaded = new CountDownLatch(count);
+		channel.subscribe(message -> {
+			retained.add(message);
+			offloaded.countDown();
+		}, offload);
+
+		List<MessageSlot> used = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			MessageSlot slot = channel.claim();
+			if (used.size() < 16) {
+				used.add(slot);
+			}
+			channel.publish(slot.setPayload(i).setHeader("symbol", "S" + (i % 3)));
+		}
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(offloaded.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, payloads.get(i));
+			assertEquals("S" + (i % 3), symbols.get(i));
+			assertNull("no id is generated", ids.get(i));
+			assertFalse("offloaded handlers receive a copy", retained.get(i) instanceof MessageSlot);
+			assertEquals(i, retained.get(i).getPayload());
+		}
+		assertSame("slots are reused", used.get(0), used.get(8));
+		offload.shutdown();
+	}
+
+	@Test
+	public void claimTimesOutWhileAllSlotsArePending() throws InterruptedException {
+		ReactorSlotChannel channel = new ReactorSlotChannel(true, 2, 1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		channel.subscribe(message -> {
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		channel.publish(channel.claim(0).setPayload("first"));
+		channel.publish(channel.claim(0).setPayload("second"));
+		assertNull("no slot is free", channel.claim(50));
+
+		blocked.countDown();
+		assertTrue("a slot is released once handled", null != channel.claim(5000));
+	}
+
+	@Test
+	public void timedOutAndReleasedClaimsDoNotSkipSlots() throws InterruptedException {
+		ReactorSlotChannel channel = new ReactorSlotChannel(true, 2, 1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		channel.subscribe(message -> {
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		MessageSlot first = channel.claim(0);
+		channel.publish(first.setPayload("first"));
+		channel.publish(channel.claim(0).setPayload("second"));
+		assertNull("no slot is free", channel.claim(0));
+		assertNull("no slot is free", channel.claim(50));
+
+		blocked.countDown();
+		MessageSlot abandoned = channel.claim(5000);
+		assertSame("timed out claims did not use up the first slot", first, abandoned);
+		channel.release(abandoned);
+		channel.publish(channel.claim(5000).setPayload("third"));
+		assertSame("a released slot is claimed again", abandoned, channel.claim(5000));
+	}
+
+}
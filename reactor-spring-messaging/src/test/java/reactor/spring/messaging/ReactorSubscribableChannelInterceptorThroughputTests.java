@@ -0,0 +1,76 @@
+package reactor.spring.messaging;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measuring the cost of {@code ChannelInterceptor}s on a {@link ReactorSubscribableChannel}, with interceptors that
+ * pass messages through unchanged on both the sending and the handling side.
+ *
+ * @author Stephane Maldini
+ */
+public class ReactorSubscribableChannelInterceptorThroughputTests {
+
+	static final Logger LOG  = LoggerFactory.getLogger(ReactorSubscribableChannelInterceptorThroughputTests.class);
+	static final int    MSGS = 1000000;
+
+	@Test
+	public void noInterceptorThroughput() throws InterruptedException {
+		doTest(0);
+	}
+
+	@Test
+	public void oneInterceptorThroughput() throws InterruptedException {
+		doTest(1);
+	}
+
+	@Test
+	public void fiveInterceptorsThroughput() throws InterruptedException {
+		doTest(5);
+	}
+
+	private void doTest(int interceptors) throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		for (int i = 0; i < interceptors; i++) {
+			channel.addInterceptor(new PassThroughInterceptor());
+		}
+		CountDownLatch latch = new CountDownLatch(MSGS);
+		channel.subscribe(message -> latch.countDown());
+
+		Message<?> msg = MessageBuilder.withPayload("Hello World!").build();
+		long start = System.nanoTime();
+		for (int i = 0; i < MSGS; i++) {
+			channel.send(msg);
+		}
+		assertTrue("latch did not time out", latch.await(30, TimeUnit.SECONDS));
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		LOG.info("{} interceptor(s): processed {} msgs in {}ms for throughput of {}/sec", interceptors, MSGS, elapsed,
+				MSGS * 1000L / Math.max(elapsed, 1));
+	}
+
+	static class PassThroughInterceptor extends ChannelInterceptorAdapter implements ExecutorChannelInterceptor {
+		@Override
+		public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+			return message;
+		}
+
+		@Override
+		public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+		                                Exception ex) {
+		}
+	}
+
+}
@@ -0,0 +1,406 @@
+package reactor.spring.messaging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Flux;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorSubscribableChannelTests {
+
+	@Test
+	public void sendIsRejectedWhenRingBufferStaysFull() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch received = new CountDownLatch(1);
+		channel.subscribe(message -> {
+			received.countDown();
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		Message<?> msg = MessageBuilder.withPayload("Hello World!").build();
+		assertTrue("first message is accepted", channel.send(msg, 0));
+		assertTrue("handler received the first message", received.await(5, TimeUnit.SECONDS));
+
+		int sent = 0;
+		while (channel.send(msg, 0)) {
+			assertTrue("ring buffer eventually fills up", ++sent < 1_000_000);
+		}
+		assertEquals(1, channel.getRejectedSendCount());
+
+		long start = System.nanoTime();
+		assertFalse("timed send is rejected", channel.send(msg, 100));
+		assertTrue("timed send waited for its timeout",
+				System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+		assertEquals(2, channel.getRejectedSendCount());
+
+		blocked.countDown();
+		assertTrue("timed send succeeds once the handler catches up", channel.send(msg, 5000));
+	}
+
+	@Test
+	public void concurrentSendsWithoutTimeoutNeverBlock() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel();
+		CountDownLatch blocked = new CountDownLatch(1);
+		channel.subscribe(message -> {
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		Message<?> msg = MessageBuilder.withPayload("Hello World!").build();
+		int producers = 4;
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int i = 0; i < producers; i++) {
+			executor.execute(() -> {
+				int rejected = 0;
+				while (rejected < 100) {
+					if (!channel.send(msg, 0)) {
+						rejected++;
+					}
+				}
+				done.countDown();
+			});
+		}
+		try {
+			assertTrue("no producer blocked on the full ring buffer", done.await(10, TimeUnit.SECONDS));
+			assertEquals(producers * 100, channel.getRejectedSendCount());
+		}
+		finally {
+			blocked.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void multiplexedChannelFansOutToAllHandlersInOrder() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(false, 1);
+		ExecutorService offload = Executors.newSingleThreadExecutor();
+		int count = 1000;
+
+		List<CollectingHandler> handlers = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			CollectingHandler handler = new CollectingHandler(count);
+			handlers.add(handler);
+			assertTrue(channel.subscribe(handler));
+		}
+		CollectingHandler offloaded = new CollectingHandler(count);
+		assertTrue(channel.subscribe(offloaded, offload));
+		CollectingHandler removed = new CollectingHandler(count);
+		assertTrue(channel.subscribe(removed));
+		assertTrue(channel.unsubscribe(removed));
+		handlers.add(offloaded);
+
+		for (int i = 0; i < count; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			expected.add(i);
+		}
+		for (CollectingHandler handler : handlers) {
+			assertTrue("handler received every message", handler.latch.await(5, TimeUnit.SECONDS));
+			assertEquals(expected, handler.payloads);
+		}
+		assertTrue("unsubscribed handler received nothing", removed.payloads.isEmpty());
+		offload.shutdown();
+	}
+
+	@Test
+	public void publisherViewHonoursSubscriberDemand() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		List<Object> payloads = new CopyOnWriteArrayList<>();
+		Subscription[] subscription = new Subscription[1];
+		CountDownLatch subscribed = new CountDownLatch(1);
+		channel.asPublisher().subscribe(new Subscriber<Message<?>>() {
+			@Override
+			public void onSubscribe(Subscription s) {
+				subscription[0] = s;
+				subscribed.countDown();
+			}
+
+			@Override
+			public void onNext(Message<?> message) {
+				payloads.add(message.getPayload());
+			}
+
+			@Override
+			public void onError(Throwable t) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+		assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(channel.send(MessageBuilder.withPayload(i).build(), 0));
+		}
+		subscription[0].request(2);
+		Thread.sleep(200);
+		assertEquals("only the requested messages are delivered", Arrays.asList(0, 1), payloads);
+
+		subscription[0].request(3);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (payloads.size() < 5 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(Arrays.asList(0, 1, 2, 3, 4), payloads);
+	}
+
+	@Test
+	public void subscriberSinkSendsEveryMessageToTheChannel() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		int count = 1000;
+		CollectingHandler handler = new CollectingHandler(count);
+		channel.subscribe(handler);
+
+		Flux.range(0, count)
+		    .map(i -> MessageBuilder.withPayload(i).build())
+		    .subscribe(channel.asSubscriber());
+
+		assertTrue("handler received every message", handler.latch.await(5, TimeUnit.SECONDS));
+		assertEquals(Flux.range(0, count).collectList().block(), handler.payloads);
+	}
+
+	@Test
+	public void stalledHandlerIsEvictedWithoutBlockingTheOthers() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		channel.setLagThreshold(16);
+		Map<MessageHandler, Long> evicted = new ConcurrentHashMap<>();
+		channel.setEvictionCallback(evicted::put);
+		CountDownLatch blocked = new CountDownLatch(1);
+		MessageHandler stalled = message -> {
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+		int count = 1000;
+		CollectingHandler healthy = new CollectingHandler(count);
+		assertTrue(channel.subscribe(stalled));
+		assertTrue(channel.subscribe(healthy));
+
+		for (int i = 0; i < count; i++) {
+			assertTrue("senders are not held up by the stalled handler",
+					channel.send(MessageBuilder.withPayload(i).build(), 5000));
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (healthy.payloads.size() <= i && System.nanoTime() < deadline) {
+				Thread.yield();
+			}
+		}
+
+		assertTrue("healthy handler received every message", healthy.latch.await(5, TimeUnit.SECONDS));
+		assertEquals(Collections.singleton(stalled), evicted.keySet());
+		assertEquals(16L, (long) evicted.get(stalled));
+		assertFalse("evicted handler is unsubscribed", channel.unsubscribe(stalled));
+		assertEquals(Collections.singleton(healthy), channel.getLags().keySet());
+		blocked.countDown();
+	}
+
+	@Test
+	public void laggingHandlerCatchesUpFromItsOverflowBuffer() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		channel.setLagThreshold(8);
+		channel.setSlowHandlerPolicy(SlowHandlerPolicy.BUFFER, 100);
+		channel.setEvictionCallback((handler, lag) -> fail("handler was evicted with a lag of " + lag));
+		CountDownLatch blocked = new CountDownLatch(1);
+		int count = 50;
+		CollectingHandler lagging = new CollectingHandler(count) {
+			@Override
+			public void handleMessage(Message<?> message) {
+				try {
+					blocked.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				super.handleMessage(message);
+			}
+		};
+		assertTrue(channel.subscribe(lagging));
+
+		for (int i = 0; i < count; i++) {
+			channel.send(MessageBuilder.withPayload(i).build());
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (channel.getLag(lagging) < count && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals(count, channel.getLag(lagging));
+
+		blocked.countDown();
+		assertTrue("lagging handler caught up", lagging.latch.await(5, TimeUnit.SECONDS));
+		assertEquals(Flux.range(0, count).collectList().block(), lagging.payloads);
+		assertEquals(0, channel.getLag(lagging));
+	}
+
+	@Test
+	public void destroyShutsDownTheThreadsOfLagTrackedHandlers() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		channel.setLagThreshold(8);
+		List<Thread> threads = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(1);
+		assertTrue(channel.subscribe(message -> {
+			threads.add(Thread.currentThread());
+			latch.countDown();
+		}));
+		channel.send(MessageBuilder.withPayload("message").build());
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+
+		channel.destroy();
+		threads.get(0).join(5000);
+		assertFalse("the handler thread was shut down", threads.get(0).isAlive());
+	}
+
+	@Test
+	public void interceptorsRunAroundSendingAndHandling() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "handler-executor"));
+		List<String> events = new CopyOnWriteArrayList<>();
+		CountDownLatch handled = new CountDownLatch(1);
+		channel.addInterceptor(new ChannelInterceptorAdapter() {
+			@Override
+			public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+				events.add("sent " + message.getPayload() + " " + sent);
+			}
+		});
+		channel.addInterceptor(new HandlingInterceptor(events, handled));
+		channel.subscribe(message -> events.add("handle " + message.getPayload()), executor);
+
+		assertFalse("message stopped by an interceptor is not sent",
+				channel.send(MessageBuilder.withPayload("drop").build()));
+		assertTrue(channel.send(MessageBuilder.withPayload("hello").build()));
+
+		assertTrue("handling interceptor completed", handled.await(5, TimeUnit.SECONDS));
+		assertEquals(2, channel.getInterceptors().size());
+		assertTrue(events.toString(), events.contains("sent drop false"));
+		assertTrue(events.toString(), events.contains("sent hello true"));
+		List<String> handling = new ArrayList<>(events);
+		handling.removeIf(event -> event.startsWith("sent"));
+		assertEquals(Arrays.asList("before hello on handler-executor", "handle HELLO", "after HELLO on handler-executor"),
+				handling);
+		executor.shutdown();
+	}
+
+	@Test
+	public void interceptorStoppingAMessageCompletesTheInterceptorsBeforeIt() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		List<String> events = new CopyOnWriteArrayList<>();
+		CountDownLatch handled = new CountDownLatch(1);
+		channel.addInterceptor(new HandlingInterceptor(events, handled));
+		channel.addInterceptor(new StoppingInterceptor(events));
+		channel.subscribe(message -> events.add("handle " + message.getPayload()));
+
+		assertTrue(channel.send(MessageBuilder.withPayload("stop").build()));
+
+		assertTrue("handling interceptor completed", handled.await(5, TimeUnit.SECONDS));
+		assertEquals(3, events.size());
+		assertTrue(events.toString(), events.get(0).startsWith("before stop"));
+		assertEquals("stop STOP", events.get(1));
+		assertTrue(events.toString(), events.get(2).startsWith("after STOP"));
+	}
+
+	static class StoppingInterceptor extends ChannelInterceptorAdapter implements ExecutorChannelInterceptor {
+		final List<String> events;
+
+		StoppingInterceptor(List<String> events) {
+			this.events = events;
+		}
+
+		@Override
+		public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+			events.add("stop " + message.getPayload());
+			return null;
+		}
+
+		@Override
+		public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+		                                Exception ex) {
+			events.add("after stopping " + message.getPayload());
+		}
+	}
+
+	static class HandlingInterceptor extends ChannelInterceptorAdapter implements ExecutorChannelInterceptor {
+		final List<String>   events;
+		final CountDownLatch latch;
+
+		HandlingInterceptor(List<String> events, CountDownLatch latch) {
+			this.events = events;
+			this.latch = latch;
+		}
+
+		@Override
+		public Message<?> preSend(Message<?> message, MessageChannel channel) {
+			return ("drop".equals(message.getPayload()) ? null : message);
+		}
+
+		@Override
+		public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+			events.add("before " + message.getPayload() + " on " + Thread.currentThread().getName());
+			return MessageBuilder.withPayload(message.getPayload().toString().toUpperCase()).build();
+		}
+
+		@Override
+		public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+		                                Exception ex) {
+			events.add("after " + message.getPayload() + " on " + Thread.currentThread().getName());
+			latch.countDown();
+		}
+	}
+
+	static class CollectingHandler implements MessageHandler {
+		final List<Object>   payloads = new CopyOnWriteArrayList<>();
+		final CountDownLatch latch;
+
+		CollectingHandler(int expected) {
+			this.latch = new CountDownLatch(expected);
+		}
+
+		@Override
+		public void handleMessage(Message<?> message) {
+			payloads.add(message.getPayload());
+			latch.countDown();
+		}
+	}
+
+}
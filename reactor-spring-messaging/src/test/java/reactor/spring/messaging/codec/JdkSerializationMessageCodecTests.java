@@ -0,0 +1,44 @@
+package reactor.spring.messaging.codec;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.ClassUtils;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Stephane Maldini
+ */
+public class JdkSerializationMessageCodecTests {
+
+	private final MessageCodec restricted = new JdkSerializationMessageCodec(ClassUtils.getDefaultClassLoader(),
+			Collections.singletonList("java.lang."));
+
+	@Test
+	public void allowedClassesAreDeserialized() {
+		Message<?> message = MessageBuilder.withPayload(42).setHeader("symbol", "ACME").build();
+		Message<?> decoded = restricted.decode(new JdkSerializationMessageCodec().encode(message));
+
+		assertEquals(42, decoded.getPayload());
+		assertEquals("ACME", decoded.getHeaders().get("symbol"));
+		assertEquals(message.getHeaders().getId(), decoded.getHeaders().getId());
+	}
+
+	@Test(expected = CodecException.class)
+	public void otherPayloadClassesAreRejected() {
+		restricted.decode(new JdkSerializationMessageCodec().encode(MessageBuilder.withPayload(new Date()).build()));
+	}
+
+	@Test(expected = CodecException.class)
+	public void otherHeaderClassesAreRejected() {
+		restricted.decode(new JdkSerializationMessageCodec().encode(MessageBuilder.withPayload("order")
+		                                                                          .setHeader("date", new Date())
+		                                                                          .build()));
+	}
+
+}
@@ -0,0 +1,82 @@
+package reactor.spring.messaging.codec;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Stephane Maldini
+ */
+@RunWith(Parameterized.class)
+public class MessageCodecTests {
+
+	@Parameterized.Parameters(name = "{0}")
+	public static Collection<Object[]> codecs() {
+		return Arrays.asList(new Object[][]{
+				{"jdk", new JdkSerializationMessageCodec()},
+				{"kryo", new KryoMessageCodec(String.class)},
+				{"jackson", new JacksonMessageCodec()},
+				{"snappy+kryo", new SnappyMessageCodec(new KryoMessageCodec(String.class))},
+				{"snappy+jackson", new SnappyMessageCodec(new JacksonMessageCodec())}
+		});
+	}
+
+	private final MessageCodec codec;
+
+	public MessageCodecTests(String name, MessageCodec codec) {
+		this.codec = codec;
+	}
+
+	@Test
+	public void messagesRoundTripThroughByteArrays() {
+		Message<?> message = message();
+		assertSameMessage(message, codec.decode(codec.encode(message)));
+	}
+
+	@Test
+	public void messagesRoundTripThroughHeapAndDirectBuffers() {
+		for (ByteBuffer buffer : Arrays.asList(ByteBuffer.allocate(4096), ByteBuffer.allocateDirect(4096))) {
+			Message<?> message = message();
+			buffer.position(16);
+			int length = codec.encode(message, buffer);
+			assertEquals(16 + length, buffer.position());
+
+			buffer.flip().position(16);
+			assertSameMessage(message, codec.decode(buffer));
+			assertFalse("the encoded message was consumed", buffer.hasRemaining());
+		}
+	}
+
+	@Test(expected = BufferOverflowException.class)
+	public void encodingFailsWhenTheBufferIsTooSmall() {
+		codec.encode(message(), ByteBuffer.allocateDirect(8));
+	}
+
+	private static Message<?> message() {
+		return MessageBuilder.withPayload("order-42")
+		                     .setHeader("symbol", "ACME")
+		                     .setHeader("quantity", 100)
+		                     .build();
+	}
+
+	private static void assertSameMessage(Message<?> expected, Message<?> actual) {
+		assertEquals(expected.getPayload(), actual.getPayload());
+		assertEquals(expected.getHeaders().getId(), actual.getHeaders().getId());
+		assertEquals(expected.getHeaders().getTimestamp(), actual.getHeaders().getTimestamp());
+		assertEquals("ACME", actual.getHeaders().get("symbol"));
+		assertEquals(100, actual.getHeaders().get("quantity"));
+		assertEquals(expected.getHeaders().size(), actual.getHeaders().size());
+	}
+
+}
@@ -0,0 +1,66 @@
+package reactor.spring.messaging.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Comparing the cost per message of encoding and decoding with each {@link MessageCodec}, for payloads of increasing
+ * size, through a reused direct {@link ByteBuffer} as an off-heap or memory-mapped channel would.
+ *
+ * @author Stephane Maldini
+ */
+public class MessageCodecThroughputTests {
+
+	static final Logger LOG   = LoggerFactory.getLogger(MessageCodecThroughputTests.class);
+	static final int    MSGS  = 5000;
+	static final int[]  SIZES = {64, 1024, 16 * 1024};
+
+	@Test
+	public void codecCostPerMessageSize() {
+		Map<String, MessageCodec> codecs = new LinkedHashMap<>();
+		codecs.put("jdk", new JdkSerializationMessageCodec());
+		codecs.put("kryo", new KryoMessageCodec(byte[].class));
+		codecs.put("jackson", new JacksonMessageCodec());
+		codecs.put("snappy+kryo", new SnappyMessageCodec(new KryoMessageCodec(byte[].class)));
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+		for (int size : SIZES) {
+			byte[] payload = new byte[size];
+			Arrays.fill(payload, (byte) 'x');
+			Message<?> message = MessageBuilder.withPayload(payload).setHeader("symbol", "ACME").build();
+
+			for (Map.Entry<String, MessageCodec> codec : codecs.entrySet()) {
+				run(codec.getValue(), message, buffer, MSGS / 10);
+				long start = System.nanoTime();
+				int length = run(codec.getValue(), message, buffer, MSGS);
+				long elapsed = System.nanoTime() - start;
+				LOG.info("{} payload of {} bytes: {} encoded bytes, {}ns per round trip", codec.getKey(), size, length,
+						elapsed / MSGS);
+			}
+		}
+	}
+
+	private static int run(MessageCodec codec, Message<?> message, ByteBuffer buffer, int count) {
+		int length = 0;
+		for (int i = 0; i < count; i++) {
+			buffer.clear();
+			length = codec.encode(message, buffer);
+			buffer.flip();
+			Message<?> decoded = codec.decode(buffer);
+			assertEquals(((byte[]) message.getPayload()).length, ((byte[]) decoded.getPayload()).length);
+		}
+		return length;
+	}
+
+}
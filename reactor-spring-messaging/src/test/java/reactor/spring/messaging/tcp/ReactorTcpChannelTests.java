@@ -0,0 +1,139 @@
+package reactor.spring.messaging.tcp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.ClassUtils;
+
+import reactor.spring.messaging.ReactorSubscribableChannel;
+import reactor.spring.messaging.codec.JacksonMessageCodec;
+import reactor.spring.messaging.codec.JdkSerializationMessageCodec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Stephane Maldini
+ */
+public class ReactorTcpChannelTests {
+
+	private ReactorTcpChannelServer  server;
+	private ReactorTcpMessageChannel client;
+
+	@After
+	public void close() throws Exception {
+		if (null != client) {
+			client.destroy();
+		}
+		if (null != server) {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void messagesSentByTheClientReachTheServerChannelInOrder() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		int count = 10000;
+		List<Object> payloads = new CopyOnWriteArrayList<>();
+		CountDownLatch latch = new CountDownLatch(count);
+		channel.subscribe(message -> {
+			payloads.add(message.getPayload());
+			latch.countDown();
+		});
+		server = new ReactorTcpChannelServer(channel, "localhost", 0, new JacksonMessageCodec());
+		server.start();
+		client = new ReactorTcpMessageChannel("localhost", server.getPort(), new JacksonMessageCodec());
+
+		for (int i = 0; i < count; i++) {
+			assertTrue(client.send(MessageBuilder.withPayload(i).setHeader("index", i).build()));
+		}
+
+		assertTrue("server channel received every message", latch.await(10, TimeUnit.SECONDS));
+		List<Object> expected = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			expected.add(i);
+		}
+		assertEquals(expected, payloads);
+	}
+
+	@Test
+	public void clientRunsOutOfCreditWhenTheServerChannelStaysFull() throws InterruptedException {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		CountDownLatch blocked = new CountDownLatch(1);
+		List<Message<?>> received = new CopyOnWriteArrayList<>();
+		channel.subscribe(message -> {
+			received.add(message);
+			try {
+				blocked.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		int window = 8;
+		server = new ReactorTcpChannelServer(channel, "localhost", 0, new JdkSerializationMessageCodec(
+				ClassUtils.getDefaultClassLoader(), Collections.singletonList(String.class.getName())), window, 64 * 1024);
+		server.start();
+		client = new ReactorTcpMessageChannel("localhost", server.getPort(), new JdkSerializationMessageCodec());
+
+		Message<?> msg = MessageBuilder.withPayload("Hello World!").build();
+		int sent = 0;
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < deadline) {
+			if (client.send(msg, 0)) {
+				sent++;
+			} else if (client.send(msg, 200)) {
+				sent++;
+			} else {
+				break;
+			}
+		}
+		assertTrue("client ran out of credit", client.getRejectedSendCount() > 0);
+		assertTrue("credit bounds the messages in flight, sent " + sent, sent <= 1 + 256 + 2 * window);
+
+		blocked.countDown();
+		assertTrue("credit is granted again once the channel catches up", client.send(msg, 5000));
+		sent++;
+		long drained = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (received.size() < sent && System.nanoTime() < drained) {
+			Thread.sleep(10);
+		}
+		assertEquals(sent, received.size());
+	}
+
+	@Test
+	public void destroyWritesTheQueuedMessagesAndLaterSendsFail() throws Exception {
+		ReactorSubscribableChannel channel = new ReactorSubscribableChannel(true);
+		int count = 200;
+		CountDownLatch latch = new CountDownLatch(count);
+		channel.subscribe(message -> latch.countDown());
+		server = new ReactorTcpChannelServer(channel, "localhost", 0, new JacksonMessageCodec());
+		server.start();
+		client = new ReactorTcpMessageChannel("localhost", server.getPort(), new JacksonMessageCodec());
+
+		for (int i = 0; i < count; i++) {
+			assertTrue(client.send(MessageBuilder.withPayload(i).build()));
+		}
+		client.destroy();
+
+		assertTrue("every message queued before destroy was written", latch.await(10, TimeUnit.SECONDS));
+		try {
+			client.send(MessageBuilder.withPayload(count).build());
+			fail("sending over a closed connection fails");
+		}
+		catch (MessageDeliveryException expected) {
+		}
+	}
+
+}